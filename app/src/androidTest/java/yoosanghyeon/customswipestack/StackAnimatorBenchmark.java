@@ -0,0 +1,66 @@
+package yoosanghyeon.customswipestack;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Reports the cost of one StackAnimator frame for growing stack sizes.
+ * Results are sent as instrumentation status, e.g. with
+ * {@code adb shell am instrument -w -e class yoosanghyeon.customswipestack.StackAnimatorBenchmark ...}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StackAnimatorBenchmark {
+    private static final int[] STACK_SIZES = {3, 5, 10, 20, 40};
+    private static final int WARMUP_FRAMES = 200;
+    private static final int MEASURED_FRAMES = 2000;
+    private static final long FRAME_INTERVAL_NANOS = 16666667L;
+
+    @Test
+    public void frameTimeByStackSize() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final Bundle results = new Bundle();
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            public void run() {
+                for (int stackSize : STACK_SIZES) {
+                    StackAnimator animator = new StackAnimator();
+                    animator.setDuration((int) ((WARMUP_FRAMES + MEASURED_FRAMES) * FRAME_INTERVAL_NANOS / 1000000L) * 2);
+
+                    for (int x = 0; x < stackSize; ++x) {
+                        View view = new View(context);
+                        view.setAlpha(0.0F);
+                        animator.animateTo(view, (float) (x * 6), (float) (x * 12), 0.9F, (float) x);
+                    }
+
+                    long frameTime = 0L;
+                    for (int frame = 0; frame < WARMUP_FRAMES; ++frame) {
+                        animator.applyFrame(frameTime);
+                        frameTime += FRAME_INTERVAL_NANOS;
+                    }
+
+                    long start = System.nanoTime();
+                    for (int frame = 0; frame < MEASURED_FRAMES; ++frame) {
+                        animator.applyFrame(frameTime);
+                        frameTime += FRAME_INTERVAL_NANOS;
+                    }
+
+                    long nanosPerFrame = (System.nanoTime() - start) / MEASURED_FRAMES;
+                    results.putLong("stack_size_" + stackSize + "_ns_per_frame", nanosPerFrame);
+                }
+            }
+        });
+
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+        for (int stackSize : STACK_SIZES) {
+            assertTrue(results.getLong("stack_size_" + stackSize + "_ns_per_frame") > 0L);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package yoosanghyeon.customswipestack;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class StackAnimatorTest {
+    private static final int DURATION_MILLIS = 300;
+    private static final long MILLIS = 1000000L;
+
+    @Test
+    public void retargetingOneCardKeepsTheProgressOfTheOthers() throws Exception {
+        final Context context = InstrumentationRegistry.getTargetContext();
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            public void run() {
+                StackAnimator animator = new StackAnimator();
+                animator.setDuration(DURATION_MILLIS);
+                View moving = new View(context);
+                View retargeted = new View(context);
+                animator.animateTo(moving, 100.0F, 0.0F, 1.0F, 0.0F);
+                animator.animateTo(retargeted, 0.0F, 100.0F, 1.0F, 0.0F);
+
+                assertFalse(animator.applyFrame(0L));
+                assertFalse(animator.applyFrame(150L * MILLIS));
+                float halfway = moving.getX();
+                assertTrue(halfway > 0.0F && halfway < 100.0F);
+
+                animator.animateTo(retargeted, 0.0F, 200.0F, 1.0F, 0.0F);
+                animator.start();
+                assertFalse(animator.applyFrame(150L * MILLIS));
+                assertEquals(halfway, moving.getX(), 0.0F);
+
+                assertFalse(animator.applyFrame(300L * MILLIS));
+                assertEquals(100.0F, moving.getX(), 0.0F);
+                assertTrue(retargeted.getY() < 200.0F);
+
+                assertTrue(animator.applyFrame(450L * MILLIS));
+                assertEquals(200.0F, retargeted.getY(), 0.0F);
+                animator.cancel();
+            }
+        });
+    }
+}
@@ -0,0 +1,323 @@
+package yoosanghyeon.customswipestack;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.MainThread;
+import android.support.annotation.WorkerThread;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A {@link SwipeStackAdapter} that inflates and prepares its cards on a background
+ * executor and only binds them on the main thread once they are ready.
+ * <p>
+ * Until a card is ready, {@link #getView(int, View, ViewGroup)} returns a lightweight
+ * placeholder, which the {@link SwipeStack} swaps for the real card in place.
+ * <p>
+ * Inserting or removing items keeps the prepared cards, which move with their items.
+ * Notifying a change drops the prepared cards of the changed items.
+ */
+public abstract class AsyncSwipeStackAdapter<T> extends SwipeStackAdapter {
+    private static final int MAX_SPARE_VIEWS_PER_TYPE = 2;
+    private static ExecutorService sDefaultExecutor;
+
+    private final Executor mExecutor;
+    private final Handler mMainHandler;
+    private SparseArray<T> mPrepared;
+    /**
+     * Maps the positions being prepared to the ticket of their request, so a result
+     * finds its position again after items were inserted or removed.
+     */
+    private SparseIntArray mPending;
+    private final SparseArray<ArrayList<View>> mSpareViews;
+    private final SparseIntArray mInflating;
+    private int mNextTicket;
+    /**
+     * Position of the top card as last reported by the stack. Cards below it were
+     * swiped before they were bound and are never asked for again.
+     */
+    private int mStackPosition;
+
+    public AsyncSwipeStackAdapter() {
+        this(getDefaultExecutor());
+    }
+
+    public AsyncSwipeStackAdapter(Executor executor) {
+        this.mExecutor = executor;
+        this.mMainHandler = new Handler(Looper.getMainLooper());
+        this.mPrepared = new SparseArray<>();
+        this.mPending = new SparseIntArray();
+        this.mSpareViews = new SparseArray<>();
+        this.mInflating = new SparseIntArray();
+    }
+
+    /**
+     * Inflates a card of the given type. Called on the executor, so it must not touch
+     * views that are attached to a window.
+     */
+    @WorkerThread
+    public abstract View onCreateCard(ViewGroup parent, int viewType);
+
+    /**
+     * Loads and precomputes everything the card at the position needs, such as
+     * decoded images or laid out text. Called on the executor.
+     */
+    @WorkerThread
+    public abstract T onPrepareCard(int position);
+
+    /**
+     * Binds prepared data to a card. Called on the main thread and should stay cheap.
+     */
+    @MainThread
+    public abstract void onBindCard(View card, int position, T prepared);
+
+    @MainThread
+    public View onCreatePlaceholder(ViewGroup parent) {
+        View placeholder = new View(parent.getContext());
+        placeholder.setLayoutParams(new ViewGroup.LayoutParams(-1, -1));
+        return placeholder;
+    }
+
+    public int getCardViewType(int position) {
+        return 0;
+    }
+
+    public int getCardViewTypeCount() {
+        return 1;
+    }
+
+    public boolean isCardReady(int position) {
+        return this.mPrepared.indexOfKey(position) >= 0;
+    }
+
+    public final int getItemViewType(int position) {
+        return this.isCardReady(position) ? this.getCardViewType(position) : this.getCardViewTypeCount();
+    }
+
+    public final int getViewTypeCount() {
+        return this.getCardViewTypeCount() + 1;
+    }
+
+    public final View getView(int position, View convertView, ViewGroup parent) {
+        if (!this.isCardReady(position)) {
+            this.prepareAsync(position, parent);
+            return convertView != null ? convertView : this.onCreatePlaceholder(parent);
+        }
+
+        T prepared = this.mPrepared.get(position);
+        this.mPrepared.remove(position);
+        int viewType = this.getCardViewType(position);
+        View card = convertView;
+        if (card == null) {
+            card = this.takeSpareView(viewType);
+        }
+
+        if (card == null) {
+            card = this.onCreateCard(parent, viewType);
+        }
+
+        this.onBindCard(card, position, prepared);
+        return card;
+    }
+
+    public void notifyItemRangeInserted(int positionStart, int itemCount) {
+        int[] moved = this.offsetPositions(positionStart, 0, itemCount);
+        super.notifyItemRangeInserted(positionStart, itemCount);
+        this.requestAgain(moved);
+    }
+
+    public void notifyItemRangeRemoved(int positionStart, int itemCount) {
+        int[] moved = this.offsetPositions(positionStart, itemCount, -itemCount);
+        super.notifyItemRangeRemoved(positionStart, itemCount);
+        this.requestAgain(moved);
+    }
+
+    public void notifyItemRangeChanged(int positionStart, int itemCount) {
+        this.offsetPositions(positionStart, itemCount, 0);
+        super.notifyItemRangeChanged(positionStart, itemCount);
+    }
+
+    public void notifyDataSetChanged() {
+        this.clearPrepared();
+        super.notifyDataSetChanged();
+    }
+
+    public void notifyDataSetInvalidated() {
+        this.clearPrepared();
+        super.notifyDataSetInvalidated();
+    }
+
+    public void onStackPositionChanged(int currentPosition) {
+        super.onStackPositionChanged(currentPosition);
+        this.mStackPosition = currentPosition;
+        // Both arrays are sorted by position, so the swiped entries come first.
+        while (this.mPrepared.size() > 0 && this.mPrepared.keyAt(0) < currentPosition) {
+            this.mPrepared.removeAt(0);
+        }
+
+        while (this.mPending.size() > 0 && this.mPending.keyAt(0) < currentPosition) {
+            this.mPending.removeAt(0);
+        }
+    }
+
+    private void clearPrepared() {
+        this.mPrepared.clear();
+        this.mPending.clear();
+    }
+
+    /**
+     * Drops the entries in {@code [positionStart, positionStart + dropCount)} and moves
+     * the ones after them by {@code delta}. A request still in flight for a moved item
+     * may have read the item at its old position, so it is dropped as well.
+     *
+     * @return the new positions of the moved items whose requests were dropped
+     */
+    private int[] offsetPositions(int positionStart, int dropCount, int delta) {
+        int dropEnd = positionStart + dropCount;
+        if (this.mStackPosition > positionStart) {
+            this.mStackPosition = Math.max(positionStart, this.mStackPosition + delta);
+        }
+
+        SparseArray<T> prepared = new SparseArray<>(this.mPrepared.size());
+
+        for (int i = 0; i < this.mPrepared.size(); ++i) {
+            int position = this.mPrepared.keyAt(i);
+            if (position < positionStart) {
+                prepared.put(position, this.mPrepared.valueAt(i));
+            } else if (position >= dropEnd) {
+                prepared.put(position + delta, this.mPrepared.valueAt(i));
+            }
+        }
+
+        SparseIntArray pending = new SparseIntArray(this.mPending.size());
+        int[] moved = new int[this.mPending.size()];
+        int movedCount = 0;
+
+        for (int i = 0; i < this.mPending.size(); ++i) {
+            int position = this.mPending.keyAt(i);
+            if (position < positionStart || position >= dropEnd && delta == 0) {
+                pending.put(position, this.mPending.valueAt(i));
+            } else if (position >= dropEnd) {
+                moved[movedCount++] = position + delta;
+            }
+        }
+
+        this.mPrepared = prepared;
+        this.mPending = pending;
+        return Arrays.copyOf(moved, movedCount);
+    }
+
+    /**
+     * Rebinds the given positions, so placeholders that were waiting for a dropped
+     * request ask for their card again.
+     */
+    private void requestAgain(int[] positions) {
+        for (int position : positions) {
+            this.dispatchItemRangeChanged(position, 1);
+        }
+    }
+
+    private void prepareAsync(final int position, final ViewGroup parent) {
+        if (this.mPending.indexOfKey(position) >= 0) {
+            return;
+        }
+
+        final int ticket = this.mNextTicket++;
+        this.mPending.put(position, ticket);
+        final int viewType = this.getCardViewType(position);
+        // Requests in flight inflate at most as many cards as fit among the spares.
+        final boolean inflate = this.getSpareViewCount(viewType) + this.mInflating.get(viewType) < MAX_SPARE_VIEWS_PER_TYPE;
+        if (inflate) {
+            this.mInflating.put(viewType, this.mInflating.get(viewType) + 1);
+        }
+
+        this.mExecutor.execute(new Runnable() {
+            public void run() {
+                final T prepared = AsyncSwipeStackAdapter.this.onPrepareCard(position);
+                final View card = inflate ? AsyncSwipeStackAdapter.this.onCreateCard(parent, viewType) : null;
+                AsyncSwipeStackAdapter.this.mMainHandler.post(new Runnable() {
+                    public void run() {
+                        AsyncSwipeStackAdapter.this.onCardPrepared(ticket, viewType, inflate, prepared, card);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onCardPrepared(int ticket, int viewType, boolean inflated, T prepared, View card) {
+        if (inflated) {
+            this.mInflating.put(viewType, this.mInflating.get(viewType) - 1);
+        }
+
+        if (card != null) {
+            this.putSpareView(viewType, card);
+        }
+
+        int index = this.mPending.indexOfValue(ticket);
+        if (index < 0) {
+            // Dropped because its item changed; the stack rebinds that position itself.
+            return;
+        }
+
+        int position = this.mPending.keyAt(index);
+        this.mPending.removeAt(index);
+        if (position < this.mStackPosition) {
+            // Swiped while it was being prepared.
+            return;
+        }
+
+        this.mPrepared.put(position, prepared);
+        this.dispatchItemRangeChanged(position, 1);
+    }
+
+    private View takeSpareView(int viewType) {
+        ArrayList<View> spare = this.mSpareViews.get(viewType);
+        return spare != null && !spare.isEmpty() ? spare.remove(spare.size() - 1) : null;
+    }
+
+    private int getSpareViewCount(int viewType) {
+        ArrayList<View> spare = this.mSpareViews.get(viewType);
+        return spare != null ? spare.size() : 0;
+    }
+
+    private void putSpareView(int viewType, View view) {
+        ArrayList<View> spare = this.mSpareViews.get(viewType);
+        if (spare == null) {
+            spare = new ArrayList<>(MAX_SPARE_VIEWS_PER_TYPE);
+            this.mSpareViews.put(viewType, spare);
+        }
+
+        if (spare.size() < MAX_SPARE_VIEWS_PER_TYPE) {
+            spare.add(view);
+        }
+    }
+
+    private static synchronized ExecutorService getDefaultExecutor() {
+        if (sDefaultExecutor == null) {
+            sDefaultExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                public Thread newThread(final Runnable runnable) {
+                    Thread thread = new Thread(new Runnable() {
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            runnable.run();
+                        }
+                    }, "SwipeStack-bind");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        return sDefaultExecutor;
+    }
+}
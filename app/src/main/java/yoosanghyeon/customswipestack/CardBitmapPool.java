@@ -0,0 +1,378 @@
+package yoosanghyeon.customswipestack;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.MainThread;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+import android.util.LongSparseArray;
+import android.widget.Adapter;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Decodes the images of the cards in a {@link SwipeStack}'s preload window on a
+ * background executor, so they are ready before a card is revealed, and reuses the
+ * memory of released images for the next decodes.
+ * <p>
+ * The byte budget defaults to one card-sized ARGB_8888 bitmap for every card in the
+ * window: the undo history, the stacked cards and the preload lookahead. Released
+ * bitmaps are kept for reuse while they fit in the budget, so memory stays flat
+ * however long the session runs. Decoded images that no longer fit, for example
+ * after {@link #setMaxBytes(long)} shrank the budget, are dropped least recently
+ * used first and not decoded again while they stay in the window.
+ * <p>
+ * Bind images in {@code getView()} with {@link #getBitmap(int)}. A card bound before
+ * its image was decoded is bound again once it is ready. A released bitmap may be
+ * decoded into again, so it must no longer be drawn.
+ */
+public class CardBitmapPool {
+    private static final String TAG = "CardBitmapPool";
+    private static final int BYTES_PER_PIXEL = 4;
+    private static ExecutorService sDefaultExecutor;
+
+    private final CardBitmapPool.Decoder mDecoder;
+    private final Executor mExecutor;
+    private final Handler mMainHandler;
+    private final LongSparseArray<CardBitmapPool.Entry> mBitmaps;
+    private final ArrayList<Bitmap> mReusable;
+    private SwipeStack mSwipeStack;
+    private int mCardWidth;
+    private int mCardHeight;
+    private long mWindowBytes;
+    private long mMaxBytes;
+    private long mActiveBytes;
+    private long mReusableBytes;
+    private long mUseCount;
+
+    public CardBitmapPool(CardBitmapPool.Decoder decoder) {
+        this(decoder, getDefaultExecutor());
+    }
+
+    public CardBitmapPool(CardBitmapPool.Decoder decoder, Executor executor) {
+        this.mDecoder = decoder;
+        this.mExecutor = executor;
+        this.mMainHandler = new Handler(Looper.getMainLooper());
+        this.mBitmaps = new LongSparseArray<>();
+        this.mReusable = new ArrayList<>();
+    }
+
+    /**
+     * Returns the decoded image for the adapter position, or {@code null} while it is
+     * still being decoded or if the position is outside the preload window.
+     */
+    @MainThread
+    @Nullable
+    public Bitmap getBitmap(int position) {
+        Adapter adapter = this.mSwipeStack != null ? this.mSwipeStack.getAdapter() : null;
+        CardBitmapPool.Entry entry = adapter != null ? this.mBitmaps.get(CardPreloader.getKey(adapter, position)) : null;
+        if (entry == null || entry.mBitmap == null) {
+            return null;
+        }
+
+        entry.mLastUse = ++this.mUseCount;
+        return entry.mBitmap;
+    }
+
+    /**
+     * Returns the byte budget for decoded and reusable bitmaps together.
+     */
+    public long getMaxBytes() {
+        return this.mMaxBytes > 0L ? this.mMaxBytes : this.mWindowBytes;
+    }
+
+    /**
+     * Overrides the byte budget derived from the stack window, or restores it for 0.
+     */
+    public void setMaxBytes(long maxBytes) {
+        this.mMaxBytes = maxBytes;
+        this.trimToBudget(null);
+    }
+
+    /**
+     * Returns the bytes held by decoded images in the window and by bitmaps kept for reuse.
+     */
+    public long getSizeBytes() {
+        synchronized (this.mReusable) {
+            return this.mActiveBytes + this.mReusableBytes;
+        }
+    }
+
+    /**
+     * Drops the bitmaps kept for reuse. Decoded images in the window are kept.
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            this.trimReusable(0L);
+        }
+    }
+
+    void attach(SwipeStack swipeStack) {
+        this.mSwipeStack = swipeStack;
+    }
+
+    void detach() {
+        this.mSwipeStack = null;
+        this.mBitmaps.clear();
+        synchronized (this.mReusable) {
+            this.mActiveBytes = 0L;
+        }
+
+        this.trimReusable(0L);
+    }
+
+    /**
+     * Sizes the budget for {@code cardCount} cards of the given size.
+     */
+    void setWindow(int cardCount, int cardWidth, int cardHeight) {
+        this.mCardWidth = cardWidth;
+        this.mCardHeight = cardHeight;
+        this.mWindowBytes = (long) cardCount * (long) cardWidth * (long) cardHeight * (long) BYTES_PER_PIXEL;
+        this.trimToBudget(null);
+    }
+
+    void preload(final long key, final Object item) {
+        if (this.mBitmaps.indexOfKey(key) >= 0) {
+            return;
+        }
+
+        // An entry without a bitmap marks a decode in flight.
+        this.mBitmaps.put(key, new CardBitmapPool.Entry());
+        final int width = this.mCardWidth;
+        final int height = this.mCardHeight;
+        this.mExecutor.execute(new Runnable() {
+            public void run() {
+                final Bitmap bitmap = CardBitmapPool.this.decode(item, width, height);
+                CardBitmapPool.this.mMainHandler.post(new Runnable() {
+                    public void run() {
+                        CardBitmapPool.this.onDecoded(key, bitmap);
+                    }
+                });
+            }
+        });
+    }
+
+    void release(long key) {
+        int index = this.mBitmaps.indexOfKey(key);
+        if (index < 0) {
+            return;
+        }
+
+        Bitmap bitmap = this.mBitmaps.valueAt(index).mBitmap;
+        this.mBitmaps.removeAt(index);
+        if (bitmap != null) {
+            synchronized (this.mReusable) {
+                this.mActiveBytes -= (long) bitmap.getAllocationByteCount();
+            }
+
+            this.putReusable(bitmap);
+        }
+    }
+
+    private void onDecoded(long key, Bitmap bitmap) {
+        int index = this.mBitmaps.indexOfKey(key);
+        CardBitmapPool.Entry entry = index >= 0 ? this.mBitmaps.valueAt(index) : null;
+        if (bitmap == null) {
+            // Forget the failed decode, so the image is tried again once it is preloaded again.
+            if (entry != null && entry.mBitmap == null && !entry.mEvicted) {
+                this.mBitmaps.removeAt(index);
+            }
+
+            return;
+        }
+
+        if (entry == null || entry.mBitmap != null || entry.mEvicted) {
+            // Released while it was decoding.
+            this.putReusable(bitmap);
+            return;
+        }
+
+        entry.mBitmap = bitmap;
+        entry.mLastUse = ++this.mUseCount;
+        synchronized (this.mReusable) {
+            this.mActiveBytes += (long) bitmap.getAllocationByteCount();
+        }
+
+        this.trimToBudget(entry);
+        if (this.mSwipeStack != null) {
+            this.mSwipeStack.onCardBitmapReady(key);
+        }
+    }
+
+    /**
+     * Decodes an image, or returns {@code null} if the decoder failed or threw.
+     */
+    @WorkerThread
+    private Bitmap decode(Object item, int width, int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inMutable = true;
+        options.inBitmap = this.takeReusable((long) width * (long) height * (long) BYTES_PER_PIXEL);
+        Bitmap reused = options.inBitmap;
+        Bitmap bitmap;
+
+        try {
+            bitmap = this.decodeWithFallback(item, width, height, options);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Can't decode the image of " + item, e);
+            bitmap = null;
+        }
+
+        if (reused != null && bitmap != reused) {
+            this.putReusable(reused);
+        }
+
+        return bitmap;
+    }
+
+    @WorkerThread
+    private Bitmap decodeWithFallback(Object item, int width, int height, BitmapFactory.Options options) {
+        try {
+            return this.mDecoder.decode(item, width, height, options);
+        } catch (IllegalArgumentException e) {
+            if (options.inBitmap == null) {
+                throw e;
+            }
+
+            // The image did not fit into the reused bitmap, decode it into a new one.
+            options.inBitmap = null;
+            return this.mDecoder.decode(item, width, height, options);
+        }
+    }
+
+    /**
+     * Brings the pool back into its budget: drops bitmaps kept for reuse first, then
+     * the least recently used decoded images other than {@code keep}. Those may still
+     * be drawn, so they are only forgotten, never decoded into again.
+     */
+    private void trimToBudget(CardBitmapPool.Entry keep) {
+        long maxBytes = this.getMaxBytes();
+        this.trimReusable(maxBytes - this.mActiveBytes);
+
+        while (this.mActiveBytes > maxBytes) {
+            CardBitmapPool.Entry oldest = null;
+
+            for (int i = 0; i < this.mBitmaps.size(); ++i) {
+                CardBitmapPool.Entry entry = this.mBitmaps.valueAt(i);
+                if (entry != keep && entry.mBitmap != null && (oldest == null || entry.mLastUse < oldest.mLastUse)) {
+                    oldest = entry;
+                }
+            }
+
+            if (oldest == null) {
+                return;
+            }
+
+            synchronized (this.mReusable) {
+                this.mActiveBytes -= (long) oldest.mBitmap.getAllocationByteCount();
+            }
+
+            oldest.mBitmap = null;
+            oldest.mEvicted = true;
+        }
+    }
+
+    /**
+     * Takes the smallest reusable bitmap that holds at least {@code bytes}, or the
+     * largest one if none does, since the decoder may sample the image down.
+     */
+    private Bitmap takeReusable(long bytes) {
+        synchronized (this.mReusable) {
+            int best = -1;
+
+            long bestSize = -1L;
+
+            for (int i = 0; i < this.mReusable.size(); ++i) {
+                long size = (long) this.mReusable.get(i).getAllocationByteCount();
+                boolean better = size >= bytes
+                        ? bestSize < bytes || size < bestSize
+                        : bestSize < bytes && size > bestSize;
+                if (better) {
+                    best = i;
+                    bestSize = size;
+                }
+            }
+
+            if (best < 0) {
+                return null;
+            }
+
+            Bitmap bitmap = this.mReusable.remove(best);
+            this.mReusableBytes -= (long) bitmap.getAllocationByteCount();
+            return bitmap;
+        }
+    }
+
+    private void putReusable(Bitmap bitmap) {
+        if (bitmap.isRecycled() || !bitmap.isMutable()) {
+            return;
+        }
+
+        synchronized (this.mReusable) {
+            long bytes = (long) bitmap.getAllocationByteCount();
+            if (this.mActiveBytes + this.mReusableBytes + bytes <= this.getMaxBytes()) {
+                this.mReusable.add(bitmap);
+                this.mReusableBytes += bytes;
+            }
+        }
+    }
+
+    private void trimReusable(long maxReusableBytes) {
+        synchronized (this.mReusable) {
+            while (this.mReusableBytes > Math.max(0L, maxReusableBytes) && !this.mReusable.isEmpty()) {
+                Bitmap bitmap = this.mReusable.remove(this.mReusable.size() - 1);
+                this.mReusableBytes -= (long) bitmap.getAllocationByteCount();
+            }
+        }
+    }
+
+    private static synchronized ExecutorService getDefaultExecutor() {
+        if (sDefaultExecutor == null) {
+            sDefaultExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                public Thread newThread(final Runnable runnable) {
+                    Thread thread = new Thread(new Runnable() {
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            runnable.run();
+                        }
+                    }, "SwipeStack-decode");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        return sDefaultExecutor;
+    }
+
+    /**
+     * The state of one key in the window: decoding while it has no bitmap, decoded,
+     * or evicted to stay within the budget.
+     */
+    private static final class Entry {
+        Bitmap mBitmap;
+        long mLastUse;
+        boolean mEvicted;
+    }
+
+    public interface Decoder {
+        /**
+         * Decodes the image of an adapter item, for example with
+         * {@link BitmapFactory#decodeStream(java.io.InputStream, android.graphics.Rect, BitmapFactory.Options)}
+         * and the given options, which may reuse a released bitmap. Set
+         * {@code inSampleSize} so the image roughly fits the card size. Called on the executor.
+         *
+         * @return the decoded bitmap, or {@code null} if the image could not be loaded
+         */
+        @WorkerThread
+        Bitmap decode(Object item, int width, int height, BitmapFactory.Options options);
+    }
+}
@@ -0,0 +1,95 @@
+package yoosanghyeon.customswipestack;
+
+import android.graphics.Paint;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * Decides which cards render through a hardware layer. In
+ * {@link SwipeStack#LAYER_MODE_ANIMATING} a card only holds a layer while it is
+ * dragged or animated, so cards at rest do not keep GPU memory.
+ */
+class CardLayerController {
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final ArrayList<View> mLayeredViews;
+    private int mMode;
+
+    CardLayerController(int mode) {
+        this.mLayeredViews = new ArrayList<>();
+        this.mMode = mode;
+    }
+
+    void setMode(int mode) {
+        if (mode == this.mMode) {
+            return;
+        }
+
+        for (int i = this.mLayeredViews.size() - 1; i >= 0; --i) {
+            this.mLayeredViews.get(i).setLayerType(View.LAYER_TYPE_NONE, (Paint) null);
+        }
+
+        this.mLayeredViews.clear();
+        this.mMode = mode;
+    }
+
+    int getMode() {
+        return this.mMode;
+    }
+
+    void onCardPrepared(View view) {
+        if (this.mMode == SwipeStack.LAYER_MODE_ALWAYS) {
+            this.addLayer(view);
+        }
+    }
+
+    void onCardRecycled(View view) {
+        this.removeLayer(view);
+    }
+
+    void promote(View view) {
+        if (this.mMode == SwipeStack.LAYER_MODE_ANIMATING) {
+            this.addLayer(view);
+        }
+    }
+
+    void demote(View view) {
+        if (this.mMode == SwipeStack.LAYER_MODE_ANIMATING) {
+            this.removeLayer(view);
+        }
+    }
+
+    int getLayerCount() {
+        return this.mLayeredViews.size();
+    }
+
+    /**
+     * Estimates the memory held by the layers of attached cards, assuming ARGB_8888.
+     */
+    long getLayerMemoryBytes() {
+        long bytes = 0L;
+
+        for (int i = 0; i < this.mLayeredViews.size(); ++i) {
+            View view = this.mLayeredViews.get(i);
+            if (view.getParent() != null) {
+                bytes += (long) view.getWidth() * (long) view.getHeight() * BYTES_PER_PIXEL;
+            }
+        }
+
+        return bytes;
+    }
+
+    private void addLayer(View view) {
+        if (!this.mLayeredViews.contains(view)) {
+            this.mLayeredViews.add(view);
+            view.setLayerType(View.LAYER_TYPE_HARDWARE, (Paint) null);
+        }
+    }
+
+    private void removeLayer(View view) {
+        if (this.mLayeredViews.remove(view)) {
+            view.setLayerType(View.LAYER_TYPE_NONE, (Paint) null);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package yoosanghyeon.customswipestack;
+
+import android.util.SparseArray;
+import android.view.View;
+
+/**
+ * Creates and binds the cards below the stacked ones between frames, so that a
+ * swipe only has to attach an already measured view. When and for how long it
+ * runs is decided by a {@link PrefetchScheduler}, which may be shared between stacks.
+ */
+class CardPrefetcher {
+    private final SwipeStack mSwipeStack;
+    private final SparseArray<View> mPrefetched;
+    private PrefetchScheduler mScheduler;
+    private int mPrefetchCount;
+    private long mAverageBindTimeNs;
+    private int mBindCount;
+    private int mPriority;
+
+    CardPrefetcher(SwipeStack swipeStack, int prefetchCount) {
+        this.mSwipeStack = swipeStack;
+        this.mPrefetched = new SparseArray<>();
+        this.mScheduler = new PrefetchScheduler();
+        this.mPrefetchCount = prefetchCount;
+    }
+
+    void setPrefetchCount(int prefetchCount) {
+        this.mPrefetchCount = prefetchCount;
+    }
+
+    PrefetchScheduler getScheduler() {
+        return this.mScheduler;
+    }
+
+    void setScheduler(PrefetchScheduler scheduler) {
+        this.cancel();
+        this.mScheduler = scheduler;
+    }
+
+    SwipeStack getSwipeStack() {
+        return this.mSwipeStack;
+    }
+
+    /**
+     * Returns how many cards were bound so far, to tell whether a pass made progress.
+     */
+    int getBindCount() {
+        return this.mBindCount;
+    }
+
+    int getPriority() {
+        return this.mPriority;
+    }
+
+    void setPriority(int priority) {
+        this.mPriority = priority;
+    }
+
+    void onAttachedToWindow() {
+        this.mScheduler.onAttachedToWindow(this.mSwipeStack);
+    }
+
+    void onDetachedFromWindow() {
+        this.cancel();
+    }
+
+    void schedule() {
+        if (this.mPrefetchCount > 0) {
+            this.mScheduler.schedule(this);
+        }
+    }
+
+    void cancel() {
+        this.mScheduler.cancel(this);
+    }
+
+    View takePrefetchedView(int position) {
+        View view = this.mPrefetched.get(position);
+        if (view != null) {
+            this.mPrefetched.remove(position);
+        }
+
+        return view;
+    }
+
+    /**
+     * Hands back a view taken with {@link #takePrefetchedView(int)} that was not used.
+     */
+    void putPrefetchedView(int position, View view) {
+        View previous = this.mPrefetched.get(position);
+        if (previous != null) {
+            this.mSwipeStack.recycleView(previous);
+        }
+
+        this.mPrefetched.put(position, view);
+    }
+
+    void drop(int start, int end) {
+        for (int i = this.mPrefetched.size() - 1; i >= 0; --i) {
+            int position = this.mPrefetched.keyAt(i);
+            if (position >= start && position < end) {
+                this.mSwipeStack.recycleView(this.mPrefetched.valueAt(i));
+                this.mPrefetched.removeAt(i);
+            }
+        }
+    }
+
+    void offset(int positionStart, int delta) {
+        if (this.mPrefetched.size() == 0) {
+            return;
+        }
+
+        SparseArray<View> shifted = new SparseArray<>(this.mPrefetched.size());
+        for (int i = 0; i < this.mPrefetched.size(); ++i) {
+            int position = this.mPrefetched.keyAt(i);
+            shifted.put(position >= positionStart ? position + delta : position, this.mPrefetched.valueAt(i));
+        }
+
+        this.mPrefetched.clear();
+        for (int i = 0; i < shifted.size(); ++i) {
+            this.mPrefetched.put(shifted.keyAt(i), shifted.valueAt(i));
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < this.mPrefetched.size(); ++i) {
+            this.mSwipeStack.recycleView(this.mPrefetched.valueAt(i));
+        }
+
+        this.mPrefetched.clear();
+    }
+
+    /**
+     * Binds the missing cards of the prefetch window until {@code deadlineNs}.
+     *
+     * @return false if the deadline was reached before every card was bound
+     */
+    boolean prefetch(long deadlineNs) {
+        if (!this.mSwipeStack.canPrefetch()) {
+            return true;
+        }
+
+        int start = this.mSwipeStack.getNextPosition();
+        int end = Math.min(start + this.mPrefetchCount, this.mSwipeStack.getAdapter().getCount());
+        this.dropOutside(start, end);
+        boolean bound = false;
+
+        for (int position = start; position < end; ++position) {
+            if (this.mPrefetched.get(position) != null) {
+                continue;
+            }
+
+            // The first card of a pass only needs time left, like GapWorker's idle
+            // prefetch, so one slow bind can't keep the estimate above the budget.
+            long startNs = System.nanoTime();
+            if (startNs + (bound ? this.mAverageBindTimeNs : 0L) > deadlineNs) {
+                return false;
+            }
+
+            View view = this.mSwipeStack.createCardView(position);
+            this.mPrefetched.put(position, view);
+            ++this.mBindCount;
+            bound = true;
+
+            long bindTimeNs = System.nanoTime() - startNs;
+            this.mAverageBindTimeNs = this.mAverageBindTimeNs == 0L
+                    ? bindTimeNs
+                    : this.mAverageBindTimeNs / 4L * 3L + bindTimeNs / 4L;
+        }
+
+        return true;
+    }
+
+    private void dropOutside(int start, int end) {
+        for (int i = this.mPrefetched.size() - 1; i >= 0; --i) {
+            int position = this.mPrefetched.keyAt(i);
+            if (position < start || position >= end) {
+                this.mSwipeStack.recycleView(this.mPrefetched.valueAt(i));
+                this.mPrefetched.removeAt(i);
+            }
+        }
+    }
+}
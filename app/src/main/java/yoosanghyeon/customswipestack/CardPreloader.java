@@ -0,0 +1,199 @@
+package yoosanghyeon.customswipestack;
+
+import android.widget.Adapter;
+
+/**
+ * Tracks the adapter positions around the top card that were announced to the
+ * {@link SwipeStack.PreloadListener} and the {@link CardBitmapPool}. Whenever the
+ * window moves, positions that left it are released first and new ones are
+ * preloaded, upcoming positions nearest first, then the swiped positions undo can
+ * still bring back. Works on preallocated arrays, so a swipe does not allocate.
+ */
+class CardPreloader {
+    private final SwipeStack mSwipeStack;
+    private SwipeStack.PreloadListener mListener;
+    private CardBitmapPool mBitmapPool;
+    private int[] mPositions;
+    private long[] mKeys;
+    private int mSize;
+    private int[] mWindowPositions;
+    private long[] mWindowKeys;
+    private int mFirst;
+    private int mCurrent;
+    private int mEnd;
+
+    CardPreloader(SwipeStack swipeStack) {
+        this.mSwipeStack = swipeStack;
+        this.mPositions = new int[0];
+        this.mKeys = new long[0];
+        this.mWindowPositions = new int[0];
+        this.mWindowKeys = new long[0];
+        this.invalidate();
+    }
+
+    void setListener(SwipeStack.PreloadListener listener) {
+        this.reset();
+        this.mListener = listener;
+    }
+
+    void setBitmapPool(CardBitmapPool bitmapPool) {
+        this.reset();
+        this.mBitmapPool = bitmapPool;
+    }
+
+    /**
+     * Returns the key the preloader and the bitmap pool use for an adapter position:
+     * the item id for adapters with stable ids, otherwise the position itself.
+     */
+    static long getKey(Adapter adapter, int position) {
+        return adapter.hasStableIds() ? adapter.getItemId(position) : (long) position;
+    }
+
+    /**
+     * Announces the difference to the window {@code [first, end)}, where
+     * {@code current} is the position of the top card.
+     */
+    void update(int first, int current, int end) {
+        if (this.mListener == null && this.mBitmapPool == null
+                || first == this.mFirst && current == this.mCurrent && end == this.mEnd) {
+            return;
+        }
+
+        this.mFirst = first;
+        this.mCurrent = current;
+        this.mEnd = end;
+        Adapter adapter = this.mSwipeStack.getAdapter();
+        int count = Math.max(0, end - first);
+        if (this.mWindowKeys.length < count) {
+            this.mWindowPositions = new int[count];
+            this.mWindowKeys = new long[count];
+        }
+
+        int size = 0;
+
+        for (int position = current; position < end; ++position) {
+            this.mWindowPositions[size] = position;
+            this.mWindowKeys[size++] = getKey(adapter, position);
+        }
+
+        for (int position = Math.min(current, end) - 1; position >= first; --position) {
+            this.mWindowPositions[size] = position;
+            this.mWindowKeys[size++] = getKey(adapter, position);
+        }
+
+        for (int i = 0; i < this.mSize; ++i) {
+            if (!contains(this.mWindowKeys, size, this.mKeys[i])) {
+                this.release(this.mPositions[i], this.mKeys[i]);
+            }
+        }
+
+        for (int i = 0; i < size; ++i) {
+            if (!contains(this.mKeys, this.mSize, this.mWindowKeys[i])) {
+                this.preload(adapter, this.mWindowPositions[i], this.mWindowKeys[i]);
+            }
+        }
+
+        int[] positions = this.mPositions;
+        long[] keys = this.mKeys;
+        this.mPositions = this.mWindowPositions;
+        this.mKeys = this.mWindowKeys;
+        this.mWindowPositions = positions;
+        this.mWindowKeys = keys;
+        this.mSize = size;
+    }
+
+    /**
+     * Makes the next {@link #update(int, int, int)} compare against the announced
+     * positions even if the window did not move.
+     */
+    void invalidate() {
+        this.mFirst = -1;
+        this.mCurrent = -1;
+        this.mEnd = -1;
+    }
+
+    /**
+     * Shifts the announced positions at or after {@code positionStart} by {@code delta}.
+     * Without stable ids the keys are positions, which no longer match, so everything
+     * is released instead.
+     */
+    void offset(int positionStart, int delta) {
+        if (!this.mSwipeStack.getAdapter().hasStableIds()) {
+            this.reset();
+            return;
+        }
+
+        for (int i = 0; i < this.mSize; ++i) {
+            if (this.mPositions[i] >= positionStart) {
+                this.mPositions[i] += delta;
+            }
+        }
+
+        this.invalidate();
+    }
+
+    /**
+     * Forgets the announced positions in {@code [start, end)} because their items were
+     * removed or changed. The listener is not told, since the positions no longer name
+     * those items; a changed item is preloaded again by the next update.
+     */
+    void drop(int start, int end) {
+        int size = 0;
+
+        for (int i = 0; i < this.mSize; ++i) {
+            if (this.mPositions[i] >= start && this.mPositions[i] < end) {
+                if (this.mBitmapPool != null) {
+                    this.mBitmapPool.release(this.mKeys[i]);
+                }
+            } else {
+                this.mPositions[size] = this.mPositions[i];
+                this.mKeys[size++] = this.mKeys[i];
+            }
+        }
+
+        this.mSize = size;
+        this.invalidate();
+    }
+
+    /**
+     * Releases every announced position, for example when the whole data set changed.
+     */
+    void reset() {
+        for (int i = 0; i < this.mSize; ++i) {
+            this.release(this.mPositions[i], this.mKeys[i]);
+        }
+
+        this.mSize = 0;
+        this.invalidate();
+    }
+
+    private void preload(Adapter adapter, int position, long key) {
+        if (this.mBitmapPool != null) {
+            this.mBitmapPool.preload(key, adapter.getItem(position));
+        }
+
+        if (this.mListener != null) {
+            this.mListener.onPreload(position);
+        }
+    }
+
+    private void release(int position, long key) {
+        if (this.mBitmapPool != null) {
+            this.mBitmapPool.release(key);
+        }
+
+        if (this.mListener != null) {
+            this.mListener.onRelease(position);
+        }
+    }
+
+    private static boolean contains(long[] keys, int size, long key) {
+        for (int i = 0; i < size; ++i) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
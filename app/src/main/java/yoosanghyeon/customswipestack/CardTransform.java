@@ -0,0 +1,53 @@
+package yoosanghyeon.customswipestack;
+
+/**
+ * Resting transform of a card in the stack, filled in by a
+ * {@link SwipeStack.CardTransformProvider}. The offset and scale are applied on top
+ * of the card's place in the stack.
+ */
+public class CardTransform {
+    private float mRotation;
+    private float mOffsetX;
+    private float mOffsetY;
+    private float mScale;
+
+    public CardTransform() {
+        this.reset();
+    }
+
+    public float getRotation() {
+        return this.mRotation;
+    }
+
+    public void setRotation(float rotation) {
+        this.mRotation = rotation;
+    }
+
+    public float getOffsetX() {
+        return this.mOffsetX;
+    }
+
+    public float getOffsetY() {
+        return this.mOffsetY;
+    }
+
+    public void setOffset(float offsetX, float offsetY) {
+        this.mOffsetX = offsetX;
+        this.mOffsetY = offsetY;
+    }
+
+    public float getScale() {
+        return this.mScale;
+    }
+
+    public void setScale(float scale) {
+        this.mScale = scale;
+    }
+
+    public void reset() {
+        this.mRotation = 0.0F;
+        this.mOffsetX = 0.0F;
+        this.mOffsetY = 0.0F;
+        this.mScale = 1.0F;
+    }
+}
@@ -0,0 +1,71 @@
+package yoosanghyeon.customswipestack;
+
+/**
+ * Keeps only the latest MOVE position of a drag so that the observed view is
+ * updated once per frame. Holds no references and never allocates, which keeps
+ * the touch path free of garbage.
+ */
+final class DragTracker {
+    private float mInitialX;
+    private float mDownX;
+    private float mDownY;
+    private float mPendingX;
+    private float mPendingY;
+    private boolean mHasPendingMove;
+    private float mNewX;
+    private float mNewY;
+    private float mProgress;
+
+    void setInitialX(float initialX) {
+        this.mInitialX = initialX;
+    }
+
+    void onDown(float x, float y) {
+        this.mDownX = x;
+        this.mDownY = y;
+        this.mHasPendingMove = false;
+    }
+
+    /**
+     * Stores the pointer position, given in the coordinates of the observed view.
+     *
+     * @return true if this is the first move since the last frame was computed
+     */
+    boolean onMove(float x, float y) {
+        this.mPendingX = x;
+        this.mPendingY = y;
+        boolean firstMove = !this.mHasPendingMove;
+        this.mHasPendingMove = true;
+        return firstMove;
+    }
+
+    boolean hasPendingMove() {
+        return this.mHasPendingMove;
+    }
+
+    void cancelPendingMove() {
+        this.mHasPendingMove = false;
+    }
+
+    void computeFrame(float viewX, float viewY, int parentWidth) {
+        this.mNewX = viewX + (this.mPendingX - this.mDownX);
+        this.mNewY = viewY + (this.mPendingY - this.mDownY);
+        float dragDistanceX = this.mNewX - this.mInitialX;
+        this.mProgress = parentWidth > 0
+                ? Math.min(Math.max(dragDistanceX / (float) parentWidth, -1.0F), 1.0F)
+                : 0.0F;
+        this.mHasPendingMove = false;
+    }
+
+    float getX() {
+        return this.mNewX;
+    }
+
+    float getY() {
+        return this.mNewY;
+    }
+
+    float getProgress() {
+        return this.mProgress;
+    }
+}
@@ -0,0 +1,198 @@
+package yoosanghyeon.customswipestack;
+
+import android.support.annotation.MainThread;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link SwipeStackAdapter} for endless, server-paged decks. Pages are requested
+ * from a {@link PageLoader} when fewer than {@code prefetchDistance} cards are left
+ * behind the top card, and pages whose cards have all been swiped and have left the
+ * undo history are dropped, so memory stays bounded however long the session runs.
+ * <p>
+ * The first page is requested as soon as the adapter is set on a {@link SwipeStack}.
+ * <p>
+ * Positions passed to {@link #getView} and to the {@link SwipeStack} listeners are
+ * relative to the loaded window. Use {@link #getAbsolutePosition(int)} to map them
+ * back to the position in the whole deck.
+ */
+public abstract class PagedSwipeStackAdapter<T> extends SwipeStackAdapter {
+    public static final int DEFAULT_PREFETCH_DISTANCE = 10;
+
+    private final PagedSwipeStackAdapter.PageLoader<T> mLoader;
+    private final int mPrefetchDistance;
+    private final ArrayList<T> mItems;
+    private final ArrayList<Integer> mPageSizes;
+    private int mWindowStart;
+    private int mNextPage;
+    private int mCurrentPosition;
+    private int mFirstUndoPosition;
+    private int mGeneration;
+    private boolean mLoading;
+    private boolean mHasMore;
+
+    public PagedSwipeStackAdapter(PagedSwipeStackAdapter.PageLoader<T> loader) {
+        this(loader, DEFAULT_PREFETCH_DISTANCE);
+    }
+
+    public PagedSwipeStackAdapter(PagedSwipeStackAdapter.PageLoader<T> loader, int prefetchDistance) {
+        this.mLoader = loader;
+        this.mPrefetchDistance = prefetchDistance;
+        this.mItems = new ArrayList<>();
+        this.mPageSizes = new ArrayList<>();
+        this.mHasMore = true;
+    }
+
+    /**
+     * Drops every loaded page and starts loading again from the first page.
+     */
+    @MainThread
+    public void refresh() {
+        ++this.mGeneration;
+        this.mItems.clear();
+        this.mPageSizes.clear();
+        this.mWindowStart = 0;
+        this.mNextPage = 0;
+        this.mCurrentPosition = 0;
+        this.mFirstUndoPosition = 0;
+        this.mLoading = false;
+        this.mHasMore = true;
+        this.notifyDataSetChanged();
+        this.loadIfNeeded();
+    }
+
+    /**
+     * Starts loading the first page once a {@link SwipeStack} observes the adapter.
+     */
+    public void registerItemObserver(SwipeStackAdapter.ItemObserver observer) {
+        super.registerItemObserver(observer);
+        this.loadIfNeeded();
+    }
+
+    /**
+     * Retries loading after {@link PagedSwipeStackAdapter.PageCallback#onPageFailed()}.
+     */
+    @MainThread
+    public void retry() {
+        this.loadIfNeeded();
+    }
+
+    public int getCount() {
+        return this.mItems.size();
+    }
+
+    public T getItem(int position) {
+        return this.mItems.get(position);
+    }
+
+    public long getItemId(int position) {
+        return (long) this.getAbsolutePosition(position);
+    }
+
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    public int getAbsolutePosition(int position) {
+        return this.mWindowStart + position;
+    }
+
+    public boolean isLoading() {
+        return this.mLoading;
+    }
+
+    public boolean hasMore() {
+        return this.mHasMore;
+    }
+
+    public void onStackPositionChanged(int currentPosition, int firstUndoPosition) {
+        super.onStackPositionChanged(currentPosition, firstUndoPosition);
+        this.mCurrentPosition = currentPosition;
+        this.mFirstUndoPosition = firstUndoPosition;
+        this.dropSwipedPages();
+        this.loadIfNeeded();
+    }
+
+    /**
+     * Drops the pages whose items are all swiped and older than the undo history, so
+     * the cards undo can bring back stay loaded.
+     */
+    private void dropSwipedPages() {
+        int droppedItems = 0;
+        int droppedPages = 0;
+
+        while (droppedPages < this.mPageSizes.size()) {
+            int pageSize = this.mPageSizes.get(droppedPages).intValue();
+            if (droppedItems + pageSize > this.mFirstUndoPosition) {
+                break;
+            }
+
+            droppedItems += pageSize;
+            ++droppedPages;
+        }
+
+        if (droppedPages == 0) {
+            return;
+        }
+
+        this.mItems.subList(0, droppedItems).clear();
+        this.mPageSizes.subList(0, droppedPages).clear();
+        this.mWindowStart += droppedItems;
+        this.mCurrentPosition -= droppedItems;
+        this.mFirstUndoPosition -= droppedItems;
+        if (droppedItems > 0) {
+            this.notifyItemRangeRemoved(0, droppedItems);
+        }
+    }
+
+    private void loadIfNeeded() {
+        if (this.mLoading || !this.mHasMore || this.mItems.size() - this.mCurrentPosition > this.mPrefetchDistance) {
+            return;
+        }
+
+        this.mLoading = true;
+        final int generation = this.mGeneration;
+        this.mLoader.loadPage(this.mNextPage, new PagedSwipeStackAdapter.PageCallback<T>() {
+            public void onPageLoaded(List<T> items, boolean hasMore) {
+                PagedSwipeStackAdapter.this.onPageLoaded(generation, items, hasMore);
+            }
+
+            public void onPageFailed() {
+                if (generation == PagedSwipeStackAdapter.this.mGeneration) {
+                    PagedSwipeStackAdapter.this.mLoading = false;
+                }
+            }
+        });
+    }
+
+    private void onPageLoaded(int generation, List<T> items, boolean hasMore) {
+        if (generation != this.mGeneration) {
+            return;
+        }
+
+        this.mLoading = false;
+        this.mHasMore = hasMore;
+        ++this.mNextPage;
+        int positionStart = this.mItems.size();
+        this.mItems.addAll(items);
+        this.mPageSizes.add(Integer.valueOf(items.size()));
+        if (!items.isEmpty()) {
+            this.notifyItemRangeInserted(positionStart, items.size());
+            this.loadIfNeeded();
+        }
+    }
+
+    public interface PageLoader<T> {
+        /**
+         * Starts loading a page. The callback must be invoked on the main thread.
+         */
+        void loadPage(int page, PagedSwipeStackAdapter.PageCallback<T> callback);
+    }
+
+    public interface PageCallback<T> {
+        void onPageLoaded(List<T> items, boolean hasMore);
+
+        void onPageFailed();
+    }
+}
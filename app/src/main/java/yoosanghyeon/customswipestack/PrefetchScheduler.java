@@ -0,0 +1,162 @@
+package yoosanghyeon.customswipestack;
+
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import android.view.Display;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the ahead-of-time binding of one or more {@link SwipeStack}s between frames,
+ * under one time budget per frame shared by all of them. Stacks that show more of
+ * themselves on screen bind first, so the deck a pager shows is prefetched before
+ * its offscreen neighbours.
+ * <p>
+ * Every stack has its own scheduler unless one is shared with
+ * {@link SwipeStack#setPrefetchScheduler(PrefetchScheduler)}.
+ */
+public class PrefetchScheduler implements Runnable, Choreographer.FrameCallback {
+    private static final float FALLBACK_REFRESH_RATE = 60.0F;
+
+    private final Handler mHandler;
+    private final ArrayList<CardPrefetcher> mPending;
+    private final Rect mVisibleRect;
+    private long mFrameIntervalNs;
+    private long mFrameBudgetNs;
+    /**
+     * Start of the frame the next {@link #run()} belongs to, in {@link System#nanoTime()}
+     * time, or 0 when it was not posted from a frame callback.
+     */
+    private long mFrameStartNs;
+    private boolean mScheduled;
+
+    public PrefetchScheduler() {
+        this.mHandler = new Handler(Looper.getMainLooper());
+        this.mPending = new ArrayList<>();
+        this.mVisibleRect = new Rect();
+        this.mFrameIntervalNs = (long) (TimeUnit.SECONDS.toNanos(1L) / FALLBACK_REFRESH_RATE);
+    }
+
+    /**
+     * Returns the binding time allowed per frame, measured from the start of the frame.
+     */
+    public long getFrameBudgetNanos() {
+        return this.mFrameBudgetNs > 0L ? this.mFrameBudgetNs : this.mFrameIntervalNs;
+    }
+
+    /**
+     * Limits binding to the given time per frame, or to the whole frame interval for 0.
+     */
+    public void setFrameBudgetNanos(long frameBudgetNs) {
+        this.mFrameBudgetNs = frameBudgetNs;
+    }
+
+    void onAttachedToWindow(SwipeStack swipeStack) {
+        Display display = swipeStack.getDisplay();
+        float refreshRate = display != null ? display.getRefreshRate() : FALLBACK_REFRESH_RATE;
+        if (refreshRate < 30.0F) {
+            refreshRate = FALLBACK_REFRESH_RATE;
+        }
+
+        this.mFrameIntervalNs = (long) (TimeUnit.SECONDS.toNanos(1L) / refreshRate);
+    }
+
+    void schedule(CardPrefetcher prefetcher) {
+        if (!this.mPending.contains(prefetcher)) {
+            this.mPending.add(prefetcher);
+        }
+
+        if (!this.mScheduled) {
+            this.mScheduled = true;
+            this.mFrameStartNs = 0L;
+            this.mHandler.post(this);
+        }
+    }
+
+    void cancel(CardPrefetcher prefetcher) {
+        this.mPending.remove(prefetcher);
+        if (this.mPending.isEmpty() && this.mScheduled) {
+            this.mScheduled = false;
+            this.mHandler.removeCallbacks(this);
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    public void doFrame(long frameTimeNanos) {
+        // Runs after this frame's traversal, like the post() in schedule().
+        this.mFrameStartNs = frameTimeNanos;
+        this.mHandler.post(this);
+    }
+
+    public void run() {
+        this.mScheduled = false;
+        if (this.mPending.isEmpty()) {
+            return;
+        }
+
+        this.sortByVisibleArea();
+        long frameStartNs = this.mFrameStartNs;
+        this.mFrameStartNs = 0L;
+        if (frameStartNs == 0L) {
+            // Posted by schedule(): anchor to the frame the stack last drew, like
+            // GapWorker. Both clocks are monotonic, the drawing time only coarser.
+            frameStartNs = TimeUnit.MILLISECONDS.toNanos(this.mPending.get(0).getSwipeStack().getDrawingTime());
+            if (System.nanoTime() - frameStartNs > this.mFrameIntervalNs) {
+                // Not drawn yet, or not in this frame: wait for the next one.
+                this.mScheduled = true;
+                Choreographer.getInstance().postFrameCallback(this);
+                return;
+            }
+        }
+
+        long deadlineNs = frameStartNs + this.getFrameBudgetNanos();
+        boolean progressed = false;
+
+        while (!this.mPending.isEmpty()) {
+            CardPrefetcher prefetcher = this.mPending.get(0);
+            int bindCount = prefetcher.getBindCount();
+            if (!prefetcher.prefetch(deadlineNs)) {
+                // A frame that bound nothing would only be followed by another one,
+                // so wait for the next schedule() instead.
+                if (progressed || prefetcher.getBindCount() != bindCount) {
+                    this.mScheduled = true;
+                    Choreographer.getInstance().postFrameCallback(this);
+                }
+
+                return;
+            }
+
+            this.mPending.remove(0);
+            progressed = true;
+        }
+    }
+
+    /**
+     * Orders the pending stacks by how much of them is on screen, largest first. An
+     * insertion sort, since only a handful of stacks are ever pending.
+     */
+    private void sortByVisibleArea() {
+        for (int i = 0; i < this.mPending.size(); ++i) {
+            CardPrefetcher prefetcher = this.mPending.get(i);
+            SwipeStack swipeStack = prefetcher.getSwipeStack();
+            prefetcher.setPriority(swipeStack.isShown() && swipeStack.getGlobalVisibleRect(this.mVisibleRect)
+                    ? this.mVisibleRect.width() * this.mVisibleRect.height()
+                    : 0);
+        }
+
+        for (int i = 1; i < this.mPending.size(); ++i) {
+            CardPrefetcher prefetcher = this.mPending.get(i);
+            int j = i - 1;
+
+            while (j >= 0 && this.mPending.get(j).getPriority() < prefetcher.getPriority()) {
+                this.mPending.set(j + 1, this.mPending.get(j));
+                --j;
+            }
+
+            this.mPending.set(j + 1, prefetcher);
+        }
+    }
+}
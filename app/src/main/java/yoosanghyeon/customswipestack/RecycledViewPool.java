@@ -0,0 +1,132 @@
+package yoosanghyeon.customswipestack;
+
+import android.support.annotation.Nullable;
+import android.util.SparseArray;
+import android.view.View;
+import android.widget.Adapter;
+
+import java.util.ArrayList;
+
+/**
+ * Holds swiped-off card views by adapter view type so they can be handed back
+ * to {@link Adapter#getView(int, View, android.view.ViewGroup)} as convertView.
+ * <p>
+ * One pool can be shared by several stacks with
+ * {@link SwipeStack#setRecycledViewPool(RecycledViewPool)}, as long as their adapters
+ * use the same view type for the same kind of card.
+ */
+public class RecycledViewPool {
+    public static final int DEFAULT_MAX_RECYCLED_VIEWS = 3;
+
+    private SparseArray<ArrayList<View>> mScrap;
+    private int mViewTypeCount;
+    private int mMaxRecycledViews;
+    private int mCreatedViewCount;
+    private int mReusedViewCount;
+    private int mAttachCount;
+
+    public RecycledViewPool() {
+        this.mViewTypeCount = 1;
+        this.mMaxRecycledViews = DEFAULT_MAX_RECYCLED_VIEWS;
+        this.mScrap = new SparseArray<>(this.mViewTypeCount);
+    }
+
+    public void setViewTypeCount(int viewTypeCount) {
+        if (viewTypeCount < 1) {
+            throw new IllegalArgumentException("Can't have a viewTypeCount < 1");
+        }
+
+        for (int i = this.mScrap.size() - 1; i >= 0; --i) {
+            if (this.mScrap.keyAt(i) >= viewTypeCount) {
+                this.mScrap.removeAt(i);
+            }
+        }
+
+        this.mViewTypeCount = viewTypeCount;
+    }
+
+    public int getViewTypeCount() {
+        return this.mViewTypeCount;
+    }
+
+    public int getMaxRecycledViews() {
+        return this.mMaxRecycledViews;
+    }
+
+    public void setMaxRecycledViews(int max) {
+        this.mMaxRecycledViews = max;
+
+        for (int i = 0; i < this.mScrap.size(); ++i) {
+            ArrayList<View> scrap = this.mScrap.valueAt(i);
+            while (scrap.size() > max) {
+                scrap.remove(scrap.size() - 1);
+            }
+        }
+    }
+
+    @Nullable
+    public View getRecycledView(int viewType) {
+        ArrayList<View> scrap = this.mScrap.get(viewType);
+        if (scrap != null && !scrap.isEmpty()) {
+            return scrap.remove(scrap.size() - 1);
+        }
+
+        return null;
+    }
+
+    public void putRecycledView(int viewType, View view) {
+        if (viewType == Adapter.IGNORE_ITEM_VIEW_TYPE || viewType >= this.mViewTypeCount) {
+            return;
+        }
+
+        ArrayList<View> scrap = this.mScrap.get(viewType);
+        if (scrap == null) {
+            scrap = new ArrayList<>(this.mMaxRecycledViews);
+            this.mScrap.put(viewType, scrap);
+        }
+
+        if (scrap.size() < this.mMaxRecycledViews && !scrap.contains(view)) {
+            scrap.add(view);
+        }
+    }
+
+    public void clear() {
+        this.mScrap.clear();
+    }
+
+    void attach() {
+        ++this.mAttachCount;
+    }
+
+    void detach() {
+        --this.mAttachCount;
+    }
+
+    /**
+     * Whether more than one stack uses this pool.
+     */
+    boolean isShared() {
+        return this.mAttachCount > 1;
+    }
+
+    void onViewBound(@Nullable View convertView, View boundView) {
+        if (convertView != null && convertView == boundView) {
+            ++this.mReusedViewCount;
+        } else {
+            ++this.mCreatedViewCount;
+        }
+    }
+
+    public int getCreatedViewCount() {
+        return this.mCreatedViewCount;
+    }
+
+    public int getReusedViewCount() {
+        return this.mReusedViewCount;
+    }
+
+    public void resetCounters() {
+        this.mCreatedViewCount = 0;
+        this.mReusedViewCount = 0;
+    }
+}
@@ -0,0 +1,35 @@
+package yoosanghyeon.customswipestack;
+
+/**
+ * Tilts every card by a whole number of degrees in {@code [-maxRotation / 2, maxRotation / 2)},
+ * derived from a hash of the seed and the adapter position. The same position always
+ * gets the same tilt, across relayouts, restores and runs.
+ */
+public class SeededCardTransformProvider implements SwipeStack.CardTransformProvider {
+    public static final long DEFAULT_SEED = 0L;
+
+    private final long mSeed;
+    private final int mMaxRotation;
+
+    public SeededCardTransformProvider(int maxRotation) {
+        this(DEFAULT_SEED, maxRotation);
+    }
+
+    public SeededCardTransformProvider(long seed, int maxRotation) {
+        this.mSeed = seed;
+        this.mMaxRotation = maxRotation;
+    }
+
+    public void getTransform(int position, CardTransform transform) {
+        if (this.mMaxRotation > 0) {
+            int rotation = (int) ((mix(this.mSeed + (long) position * 0x9E3779B97F4A7C15L) >>> 1) % this.mMaxRotation);
+            transform.setRotation((float) (rotation - this.mMaxRotation / 2));
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+        return z ^ z >>> 31;
+    }
+}
@@ -0,0 +1,88 @@
+package yoosanghyeon.customswipestack;
+
+/**
+ * A damped spring of unit mass, advanced with the closed-form solution of its motion
+ * so that a step is exact for any frame length, even after a dropped frame. Holds no
+ * references and never allocates.
+ */
+final class Spring {
+    /**
+     * The decay rate times the duration after which a motion has decayed below the
+     * settle thresholds of {@link SpringAnimator}, about a thousandth of its start.
+     */
+    private static final double SETTLE_FACTOR = 10.0D;
+
+    private double mNaturalFrequency;
+    private double mDampingRatio;
+    private float mDisplacement;
+    private float mVelocity;
+
+    Spring(float dampingRatio) {
+        this.mDampingRatio = (double) dampingRatio;
+        this.setDuration(300);
+    }
+
+    /**
+     * Tunes the stiffness so that a spring released from rest settles in about the
+     * given time.
+     */
+    void setDuration(int durationMillis) {
+        double seconds = (double) Math.max(durationMillis, 1) / 1000.0D;
+        double zeta = this.mDampingRatio;
+        // The slowest decay rate per unit of natural frequency.
+        double decayRate = zeta < 1.0D ? zeta : zeta - Math.sqrt(zeta * zeta - 1.0D);
+        this.mNaturalFrequency = SETTLE_FACTOR / (decayRate * seconds);
+    }
+
+    /**
+     * Advances a value that is {@code displacement} away from its target, moving at
+     * {@code velocity} units per second, by {@code seconds}.
+     */
+    void step(float displacement, float velocity, float seconds) {
+        double x0 = (double) displacement;
+        double v0 = (double) velocity;
+        double t = (double) seconds;
+        double w0 = this.mNaturalFrequency;
+        double zeta = this.mDampingRatio;
+        double x;
+        double v;
+
+        if (zeta < 1.0D) {
+            double wd = w0 * Math.sqrt(1.0D - zeta * zeta);
+            double a = x0;
+            double b = (v0 + zeta * w0 * x0) / wd;
+            double decay = Math.exp(-zeta * w0 * t);
+            double cos = Math.cos(wd * t);
+            double sin = Math.sin(wd * t);
+            x = decay * (a * cos + b * sin);
+            v = decay * (-zeta * w0 * (a * cos + b * sin) + wd * (b * cos - a * sin));
+        } else if (zeta == 1.0D) {
+            double a = x0;
+            double b = v0 + w0 * x0;
+            double decay = Math.exp(-w0 * t);
+            x = (a + b * t) * decay;
+            v = (b - w0 * (a + b * t)) * decay;
+        } else {
+            double root = w0 * Math.sqrt(zeta * zeta - 1.0D);
+            double r1 = -zeta * w0 + root;
+            double r2 = -zeta * w0 - root;
+            double c2 = (v0 - r1 * x0) / (r2 - r1);
+            double c1 = x0 - c2;
+            double e1 = Math.exp(r1 * t);
+            double e2 = Math.exp(r2 * t);
+            x = c1 * e1 + c2 * e2;
+            v = c1 * r1 * e1 + c2 * r2 * e2;
+        }
+
+        this.mDisplacement = (float) x;
+        this.mVelocity = (float) v;
+    }
+
+    float getDisplacement() {
+        return this.mDisplacement;
+    }
+
+    float getVelocity() {
+        return this.mVelocity;
+    }
+}
@@ -0,0 +1,259 @@
+package yoosanghyeon.customswipestack;
+
+import android.view.Choreographer;
+import android.view.View;
+
+import java.util.Arrays;
+
+/**
+ * Moves cards towards a target x, y, rotation and alpha on springs, advancing every
+ * card in a single frame callback. A card can be retargeted at any time and keeps
+ * its velocity, so a released, reset or dismissed card never stops abruptly.
+ */
+class SpringAnimator implements Choreographer.FrameCallback {
+    private static final int INITIAL_CAPACITY = 2;
+    private static final int PROPERTY_COUNT = 4;
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int ROTATION = 2;
+    private static final int ALPHA = 3;
+    private static final float[] THRESHOLDS = {0.5F, 0.5F, 0.1F, 1.0F / 256.0F};
+    /**
+     * Settled values also have to move slower than their threshold per 16ms frame.
+     */
+    private static final float VELOCITY_THRESHOLD_MULTIPLIER = 62.5F;
+    /**
+     * Longest step taken after a stall, so a card does not jump to its target.
+     */
+    private static final long MAX_FRAME_NANOS = 32000000L;
+
+    private View[] mViews;
+    private Spring[] mSprings;
+    private SpringAnimator.EndListener[] mListeners;
+    private float[] mTargets;
+    private float[] mVelocities;
+    private int mCount;
+    private View[] mEndedViews;
+    private SpringAnimator.EndListener[] mEndedListeners;
+    private long mLastFrameTimeNanos;
+    private boolean mRunning;
+
+    SpringAnimator() {
+        this.mViews = new View[INITIAL_CAPACITY];
+        this.mSprings = new Spring[INITIAL_CAPACITY];
+        this.mListeners = new SpringAnimator.EndListener[INITIAL_CAPACITY];
+        this.mTargets = new float[INITIAL_CAPACITY * PROPERTY_COUNT];
+        this.mVelocities = new float[INITIAL_CAPACITY * PROPERTY_COUNT];
+        this.mEndedViews = new View[INITIAL_CAPACITY];
+        this.mEndedListeners = new SpringAnimator.EndListener[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds or retargets a card. A card that is already moving keeps its velocity, the
+     * listener of its previous target is dropped.
+     */
+    void animateTo(View view, float toX, float toY, float toRotation, float toAlpha, Spring spring,
+            SpringAnimator.EndListener listener) {
+        int index = this.indexOf(view);
+        if (index < 0) {
+            index = this.mCount;
+            this.ensureCapacity(index + 1);
+            this.mViews[index] = view;
+            Arrays.fill(this.mVelocities, index * PROPERTY_COUNT, (index + 1) * PROPERTY_COUNT, 0.0F);
+            ++this.mCount;
+        }
+
+        int offset = index * PROPERTY_COUNT;
+        this.mSprings[index] = spring;
+        this.mListeners[index] = listener;
+        this.mTargets[offset + X] = toX;
+        this.mTargets[offset + Y] = toY;
+        this.mTargets[offset + ROTATION] = toRotation;
+        this.mTargets[offset + ALPHA] = toAlpha;
+        if (!this.mRunning) {
+            this.mRunning = true;
+            this.mLastFrameTimeNanos = System.nanoTime();
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Sets the velocity of a card that is being animated, in pixels per second.
+     */
+    void setVelocity(View view, float velocityX, float velocityY) {
+        int index = this.indexOf(view);
+        if (index >= 0) {
+            this.mVelocities[index * PROPERTY_COUNT + X] = velocityX;
+            this.mVelocities[index * PROPERTY_COUNT + Y] = velocityY;
+        }
+    }
+
+    boolean isAnimating(View view) {
+        return this.indexOf(view) >= 0;
+    }
+
+    float getVelocityX(View view) {
+        int index = this.indexOf(view);
+        return index >= 0 ? this.mVelocities[index * PROPERTY_COUNT + X] : 0.0F;
+    }
+
+    float getVelocityY(View view) {
+        int index = this.indexOf(view);
+        return index >= 0 ? this.mVelocities[index * PROPERTY_COUNT + Y] : 0.0F;
+    }
+
+    /**
+     * Stops animating the card and leaves it where it is, without notifying its listener.
+     */
+    void cancel(View view) {
+        int index = this.indexOf(view);
+        if (index >= 0) {
+            this.removeAt(index);
+        }
+
+        if (this.mCount == 0 && this.mRunning) {
+            this.mRunning = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    public void doFrame(long frameTimeNanos) {
+        if (!this.mRunning) {
+            return;
+        }
+
+        long frameNanos = Math.max(0L, Math.min(frameTimeNanos - this.mLastFrameTimeNanos, MAX_FRAME_NANOS));
+        this.mLastFrameTimeNanos = frameTimeNanos;
+        float seconds = (float) frameNanos / 1.0E9F;
+        int endedCount = 0;
+
+        for (int i = 0; i < this.mCount; ++i) {
+            if (this.step(i, seconds)) {
+                this.mEndedViews[endedCount] = this.mViews[i];
+                this.mEndedListeners[endedCount++] = this.mListeners[i];
+            }
+        }
+
+        for (int i = 0; i < endedCount; ++i) {
+            this.removeAt(this.indexOf(this.mEndedViews[i]));
+        }
+
+        if (this.mCount > 0) {
+            Choreographer.getInstance().postFrameCallback(this);
+        } else {
+            this.mRunning = false;
+        }
+
+        // Listeners run last, as they may start or cancel animations.
+        for (int i = 0; i < endedCount; ++i) {
+            View view = this.mEndedViews[i];
+            SpringAnimator.EndListener listener = this.mEndedListeners[i];
+            this.mEndedViews[i] = null;
+            this.mEndedListeners[i] = null;
+            if (listener != null) {
+                listener.onSpringEnd(view);
+            }
+        }
+    }
+
+    /**
+     * Advances every property of a card by one frame.
+     *
+     * @return true if all of them settled on their target
+     */
+    private boolean step(int index, float seconds) {
+        View view = this.mViews[index];
+        Spring spring = this.mSprings[index];
+        int offset = index * PROPERTY_COUNT;
+        boolean settled = true;
+
+        for (int property = 0; property < PROPERTY_COUNT; ++property) {
+            float target = this.mTargets[offset + property];
+            spring.step(getValue(view, property) - target, this.mVelocities[offset + property], seconds);
+            float displacement = spring.getDisplacement();
+            float velocity = spring.getVelocity();
+            float threshold = THRESHOLDS[property];
+            if (Math.abs(displacement) < threshold && Math.abs(velocity) < threshold * VELOCITY_THRESHOLD_MULTIPLIER) {
+                displacement = 0.0F;
+                velocity = 0.0F;
+            } else {
+                settled = false;
+            }
+
+            this.mVelocities[offset + property] = velocity;
+            setValue(view, property, target + displacement);
+        }
+
+        return settled;
+    }
+
+    private static float getValue(View view, int property) {
+        switch (property) {
+            case X:
+                return view.getX();
+            case Y:
+                return view.getY();
+            case ROTATION:
+                return view.getRotation();
+            default:
+                return view.getAlpha();
+        }
+    }
+
+    private static void setValue(View view, int property, float value) {
+        switch (property) {
+            case X:
+                view.setX(value);
+                break;
+            case Y:
+                view.setY(value);
+                break;
+            case ROTATION:
+                view.setRotation(value);
+                break;
+            default:
+                view.setAlpha(Math.max(0.0F, Math.min(value, 1.0F)));
+                break;
+        }
+    }
+
+    private int indexOf(View view) {
+        for (int i = 0; i < this.mCount; ++i) {
+            if (this.mViews[i] == view) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        int last = this.mCount - 1;
+        this.mViews[index] = this.mViews[last];
+        this.mSprings[index] = this.mSprings[last];
+        this.mListeners[index] = this.mListeners[last];
+        System.arraycopy(this.mTargets, last * PROPERTY_COUNT, this.mTargets, index * PROPERTY_COUNT, PROPERTY_COUNT);
+        System.arraycopy(this.mVelocities, last * PROPERTY_COUNT, this.mVelocities, index * PROPERTY_COUNT, PROPERTY_COUNT);
+        this.mViews[last] = null;
+        this.mSprings[last] = null;
+        this.mListeners[last] = null;
+        this.mCount = last;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.mViews.length) {
+            int newCapacity = Math.max(capacity, this.mViews.length * 2);
+            this.mViews = Arrays.copyOf(this.mViews, newCapacity);
+            this.mSprings = Arrays.copyOf(this.mSprings, newCapacity);
+            this.mListeners = Arrays.copyOf(this.mListeners, newCapacity);
+            this.mTargets = Arrays.copyOf(this.mTargets, newCapacity * PROPERTY_COUNT);
+            this.mVelocities = Arrays.copyOf(this.mVelocities, newCapacity * PROPERTY_COUNT);
+            this.mEndedViews = Arrays.copyOf(this.mEndedViews, newCapacity);
+            this.mEndedListeners = Arrays.copyOf(this.mEndedListeners, newCapacity);
+        }
+    }
+
+    interface EndListener {
+        void onSpringEnd(View view);
+    }
+}
@@ -0,0 +1,245 @@
+package yoosanghyeon.customswipestack;
+
+import android.animation.TimeInterpolator;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+
+import java.util.Arrays;
+
+/**
+ * Moves every card of the stack to its new x, y, scale, rotation and alpha in a single
+ * frame callback, instead of one ViewPropertyAnimator per card. Every card runs on its
+ * own clock from the frame after it was last targeted, so retargeting one card does
+ * not restart the others.
+ */
+class StackAnimator implements Choreographer.FrameCallback {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final TimeInterpolator mInterpolator = new AccelerateDecelerateInterpolator();
+    private final CardLayerController mLayerController;
+    private View[] mViews;
+    private float[] mFromX;
+    private float[] mToX;
+    private float[] mFromY;
+    private float[] mToY;
+    private float[] mFromScale;
+    private float[] mToScale;
+    private float[] mFromRotation;
+    private float[] mToRotation;
+    private float[] mFromAlpha;
+    private long[] mStartTimes;
+    private int mCount;
+    private long mDurationNanos;
+    private boolean mRunning;
+
+    StackAnimator() {
+        this((CardLayerController) null);
+    }
+
+    StackAnimator(CardLayerController layerController) {
+        this.mLayerController = layerController;
+        this.mViews = new View[INITIAL_CAPACITY];
+        this.mFromX = new float[INITIAL_CAPACITY];
+        this.mToX = new float[INITIAL_CAPACITY];
+        this.mFromY = new float[INITIAL_CAPACITY];
+        this.mToY = new float[INITIAL_CAPACITY];
+        this.mFromScale = new float[INITIAL_CAPACITY];
+        this.mToScale = new float[INITIAL_CAPACITY];
+        this.mFromRotation = new float[INITIAL_CAPACITY];
+        this.mToRotation = new float[INITIAL_CAPACITY];
+        this.mFromAlpha = new float[INITIAL_CAPACITY];
+        this.mStartTimes = new long[INITIAL_CAPACITY];
+    }
+
+    void setDuration(int duration) {
+        this.mDurationNanos = (long) duration * 1000000L;
+    }
+
+    /**
+     * Adds or retargets a card. The animation starts from the card's current values,
+     * so calling this while running continues smoothly towards the new target.
+     */
+    void animateTo(View view, float toX, float toY, float toScale, float toRotation) {
+        int index = this.indexOf(view);
+        if (index < 0) {
+            index = this.mCount;
+            this.ensureCapacity(index + 1);
+            this.mViews[index] = view;
+            ++this.mCount;
+            if (this.mLayerController != null) {
+                this.mLayerController.promote(view);
+            }
+        }
+
+        this.mFromX[index] = view.getX();
+        this.mToX[index] = toX;
+        this.mFromY[index] = view.getY();
+        this.mToY[index] = toY;
+        this.mFromScale[index] = view.getScaleX();
+        this.mToScale[index] = toScale;
+        this.mFromRotation[index] = view.getRotation();
+        this.mToRotation[index] = toRotation;
+        this.mFromAlpha[index] = view.getAlpha();
+        this.mStartTimes[index] = -1L;
+    }
+
+    /**
+     * Starts the frame callback unless it is already running. Cards that were not
+     * retargeted since the last call keep their progress.
+     */
+    void start() {
+        if (!this.mRunning && this.mCount > 0) {
+            this.mRunning = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Jumps the card to its target values and stops animating it. The card keeps its
+     * layer, as it is about to be dragged.
+     */
+    void end(View view) {
+        int index = this.indexOf(view);
+        if (index >= 0) {
+            this.apply(index, 1.0F);
+            this.removeAt(index);
+        }
+    }
+
+    /**
+     * Stops animating the card and leaves it where it is.
+     */
+    void remove(View view) {
+        int index = this.indexOf(view);
+        if (index >= 0) {
+            this.removeAt(index);
+        }
+    }
+
+    /**
+     * Jumps every card to its target values.
+     */
+    void endAll() {
+        for (int i = 0; i < this.mCount; ++i) {
+            this.apply(i, 1.0F);
+        }
+
+        this.cancel();
+    }
+
+    void cancel() {
+        if (this.mRunning) {
+            this.mRunning = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        this.clear();
+    }
+
+    boolean isRunning() {
+        return this.mRunning;
+    }
+
+    public void doFrame(long frameTimeNanos) {
+        if (!this.mRunning) {
+            return;
+        }
+
+        if (this.applyFrame(frameTimeNanos)) {
+            this.mRunning = false;
+            this.clear();
+        } else {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Applies the values of every card for the given frame time.
+     *
+     * @return true if the animation reached its end
+     */
+    boolean applyFrame(long frameTimeNanos) {
+        boolean ended = true;
+
+        for (int i = 0; i < this.mCount; ++i) {
+            if (this.mStartTimes[i] < 0L) {
+                this.mStartTimes[i] = frameTimeNanos;
+            }
+
+            float fraction = this.mDurationNanos > 0L
+                    ? Math.min((float) (frameTimeNanos - this.mStartTimes[i]) / (float) this.mDurationNanos, 1.0F)
+                    : 1.0F;
+            this.apply(i, this.mInterpolator.getInterpolation(fraction));
+            ended &= fraction >= 1.0F;
+        }
+
+        return ended;
+    }
+
+    private void apply(int index, float fraction) {
+        View view = this.mViews[index];
+        float scale = this.mFromScale[index] + (this.mToScale[index] - this.mFromScale[index]) * fraction;
+        view.setX(this.mFromX[index] + (this.mToX[index] - this.mFromX[index]) * fraction);
+        view.setY(this.mFromY[index] + (this.mToY[index] - this.mFromY[index]) * fraction);
+        view.setScaleX(scale);
+        view.setScaleY(scale);
+        view.setRotation(this.mFromRotation[index] + (this.mToRotation[index] - this.mFromRotation[index]) * fraction);
+        view.setAlpha(this.mFromAlpha[index] + (1.0F - this.mFromAlpha[index]) * fraction);
+    }
+
+    private void clear() {
+        if (this.mLayerController != null) {
+            for (int i = 0; i < this.mCount; ++i) {
+                this.mLayerController.demote(this.mViews[i]);
+            }
+        }
+
+        Arrays.fill(this.mViews, 0, this.mCount, null);
+        this.mCount = 0;
+    }
+
+    private int indexOf(View view) {
+        for (int i = 0; i < this.mCount; ++i) {
+            if (this.mViews[i] == view) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        int last = this.mCount - 1;
+        this.mViews[index] = this.mViews[last];
+        this.mFromX[index] = this.mFromX[last];
+        this.mToX[index] = this.mToX[last];
+        this.mFromY[index] = this.mFromY[last];
+        this.mToY[index] = this.mToY[last];
+        this.mFromScale[index] = this.mFromScale[last];
+        this.mToScale[index] = this.mToScale[last];
+        this.mFromRotation[index] = this.mFromRotation[last];
+        this.mToRotation[index] = this.mToRotation[last];
+        this.mFromAlpha[index] = this.mFromAlpha[last];
+        this.mStartTimes[index] = this.mStartTimes[last];
+        this.mViews[last] = null;
+        this.mCount = last;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.mViews.length) {
+            int newCapacity = Math.max(capacity, this.mViews.length * 2);
+            this.mViews = Arrays.copyOf(this.mViews, newCapacity);
+            this.mFromX = Arrays.copyOf(this.mFromX, newCapacity);
+            this.mToX = Arrays.copyOf(this.mToX, newCapacity);
+            this.mFromY = Arrays.copyOf(this.mFromY, newCapacity);
+            this.mToY = Arrays.copyOf(this.mToY, newCapacity);
+            this.mFromScale = Arrays.copyOf(this.mFromScale, newCapacity);
+            this.mToScale = Arrays.copyOf(this.mToScale, newCapacity);
+            this.mFromRotation = Arrays.copyOf(this.mFromRotation, newCapacity);
+            this.mToRotation = Arrays.copyOf(this.mToRotation, newCapacity);
+            this.mFromAlpha = Arrays.copyOf(this.mFromAlpha, newCapacity);
+            this.mStartTimes = Arrays.copyOf(this.mStartTimes, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package yoosanghyeon.customswipestack;
+
+import java.util.Arrays;
+
+/**
+ * Input and output of a {@link StackLayoutStrategy} pass. Slot 0 is the top card.
+ * Positions are offsets from a card's resting place: centered horizontally, with its
+ * top at the top padding of the stack. The arrays are reused between passes.
+ */
+public class StackLayout {
+    private final int mSpacing;
+    private final float mScaleFactor;
+    private float[] mStackScales;
+    private float[] mX;
+    private float[] mY;
+    private float[] mScale;
+    private float[] mRotation;
+    private int mCardCount;
+    private int mWidth;
+    private int mHeight;
+
+    StackLayout(int spacing, float scaleFactor, int capacity) {
+        this.mSpacing = spacing;
+        this.mScaleFactor = scaleFactor;
+        this.mStackScales = new float[0];
+        this.mX = new float[0];
+        this.mY = new float[0];
+        this.mScale = new float[0];
+        this.mRotation = new float[0];
+        this.ensureCapacity(capacity);
+    }
+
+    void begin(int cardCount, int width, int height) {
+        this.ensureCapacity(cardCount);
+        this.mCardCount = cardCount;
+        this.mWidth = width;
+        this.mHeight = height;
+    }
+
+    public int getCardCount() {
+        return this.mCardCount;
+    }
+
+    /**
+     * Width available to cards, without the padding of the stack.
+     */
+    public int getWidth() {
+        return this.mWidth;
+    }
+
+    public int getHeight() {
+        return this.mHeight;
+    }
+
+    /**
+     * The {@code stack_spacing} of the stack, in pixels.
+     */
+    public int getSpacing() {
+        return this.mSpacing;
+    }
+
+    public float getScaleFactor() {
+        return this.mScaleFactor;
+    }
+
+    /**
+     * Returns {@code scale_factor} raised to {@code distance}, precomputed for the
+     * slots of the stack.
+     */
+    public float getStackScale(int distance) {
+        if (distance < this.mStackScales.length) {
+            return this.mStackScales[distance];
+        }
+
+        return (float) Math.pow((double) this.mScaleFactor, (double) distance);
+    }
+
+    public void setCard(int slot, float x, float y, float scale, float rotation) {
+        this.mX[slot] = x;
+        this.mY[slot] = y;
+        this.mScale[slot] = scale;
+        this.mRotation[slot] = rotation;
+    }
+
+    float getX(int slot) {
+        return this.mX[slot];
+    }
+
+    float getY(int slot) {
+        return this.mY[slot];
+    }
+
+    float getScale(int slot) {
+        return this.mScale[slot];
+    }
+
+    float getRotation(int slot) {
+        return this.mRotation[slot];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= this.mX.length) {
+            return;
+        }
+
+        int oldCapacity = this.mStackScales.length;
+        this.mStackScales = Arrays.copyOf(this.mStackScales, capacity + 1);
+        float scale = oldCapacity > 0 ? this.mStackScales[oldCapacity - 1] : 1.0F;
+
+        for (int i = oldCapacity; i < this.mStackScales.length; ++i) {
+            if (i > 0) {
+                scale *= this.mScaleFactor;
+            }
+
+            this.mStackScales[i] = scale;
+        }
+
+        this.mX = Arrays.copyOf(this.mX, capacity);
+        this.mY = Arrays.copyOf(this.mY, capacity);
+        this.mScale = Arrays.copyOf(this.mScale, capacity);
+        this.mRotation = Arrays.copyOf(this.mRotation, capacity);
+    }
+}
@@ -0,0 +1,69 @@
+package yoosanghyeon.customswipestack;
+
+/**
+ * Decides where the cards of a {@link SwipeStack} rest. The stack calls
+ * {@link #computeLayout(StackLayout)} once per layout pass and animates every card
+ * towards the slot it was given. Implementations should not allocate.
+ */
+public interface StackLayoutStrategy {
+    void computeLayout(StackLayout layout);
+
+    /**
+     * Cards below the top card move down by {@code stack_spacing} and shrink by
+     * {@code scale_factor} per slot. This is the layout {@link SwipeStack} always had.
+     */
+    class Stack implements StackLayoutStrategy {
+        public void computeLayout(StackLayout layout) {
+            for (int slot = 0; slot < layout.getCardCount(); ++slot) {
+                layout.setCard(slot, 0.0F, (float) (slot * layout.getSpacing()), layout.getStackScale(slot + 1), 0.0F);
+            }
+        }
+    }
+
+    /**
+     * Cards below the top card are turned a further {@code angle} degrees per slot,
+     * spreading the stack like a hand of cards.
+     */
+    class Fan implements StackLayoutStrategy {
+        public static final float DEFAULT_ANGLE = 6.0F;
+
+        private final float mAngle;
+
+        public Fan() {
+            this(DEFAULT_ANGLE);
+        }
+
+        public Fan(float angle) {
+            this.mAngle = angle;
+        }
+
+        public void computeLayout(StackLayout layout) {
+            for (int slot = 0; slot < layout.getCardCount(); ++slot) {
+                layout.setCard(slot, 0.0F, 0.0F, layout.getStackScale(slot + 1), (float) slot * this.mAngle);
+            }
+        }
+    }
+
+    /**
+     * Cards below the top card move right by {@code stack_spacing} per slot.
+     */
+    class Cascade implements StackLayoutStrategy {
+        public void computeLayout(StackLayout layout) {
+            for (int slot = 0; slot < layout.getCardCount(); ++slot) {
+                layout.setCard(slot, (float) (slot * layout.getSpacing()), 0.0F, layout.getStackScale(slot + 1), 0.0F);
+            }
+        }
+    }
+
+    /**
+     * Only the card right below the top card peeks out; the rest wait exactly behind it.
+     */
+    class Peek implements StackLayoutStrategy {
+        public void computeLayout(StackLayout layout) {
+            for (int slot = 0; slot < layout.getCardCount(); ++slot) {
+                int distance = Math.min(slot, 1);
+                layout.setCard(slot, 0.0F, (float) (distance * layout.getSpacing()), layout.getStackScale(distance + 1), 0.0F);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package yoosanghyeon.customswipestack;
+
+/**
+ * Decides on release whether and where a card is swiped. The drag distance is
+ * projected a short time ahead along the release velocity; the card is swiped if
+ * the projection leaves an ellipse of {@code threshold} times the parent size, or
+ * if the release is a fling. The direction is the octant of the projection,
+ * falling back to the nearer neighbouring octant if that one is not allowed.
+ */
+class SwipeClassifier {
+    static final float DEFAULT_THRESHOLD = 1.0F / 6.0F;
+    private static final float PROJECTION_SECONDS = 0.1F;
+    private static final float OCTANTS_PER_RADIAN = (float) (4.0D / Math.PI);
+    private static final int[] OCTANT_DIRECTIONS = {
+            SwipeStack.SWIPE_RIGHT, SwipeStack.SWIPE_BOTTOM_RIGHT, SwipeStack.SWIPE_BOTTOM, SwipeStack.SWIPE_BOTTOM_LEFT,
+            SwipeStack.SWIPE_LEFT, SwipeStack.SWIPE_TOP_LEFT, SwipeStack.SWIPE_TOP, SwipeStack.SWIPE_TOP_RIGHT
+    };
+
+    private float mThreshold = DEFAULT_THRESHOLD;
+    private float mFlingVelocity;
+    private float mMinFlingDistance;
+    private boolean mFling;
+    private float mSpeed;
+
+    void setThreshold(float threshold) {
+        this.mThreshold = threshold;
+    }
+
+    float getThreshold() {
+        return this.mThreshold;
+    }
+
+    void setFlingVelocity(float velocity) {
+        this.mFlingVelocity = velocity;
+    }
+
+    void setMinFlingDistance(float distance) {
+        this.mMinFlingDistance = distance;
+    }
+
+    /**
+     * @return the direction to swipe to, or 0 to let the card settle back
+     */
+    int classify(float dragX, float dragY, float velocityX, float velocityY, int width, int height, int allowedDirections) {
+        float projectedX = dragX + velocityX * PROJECTION_SECONDS;
+        float projectedY = dragY + velocityY * PROJECTION_SECONDS;
+        float speedSquared = velocityX * velocityX + velocityY * velocityY;
+        this.mSpeed = (float) Math.sqrt((double) speedSquared);
+        this.mFling = this.mFlingVelocity > 0.0F
+                && speedSquared >= this.mFlingVelocity * this.mFlingVelocity
+                && dragX * dragX + dragY * dragY >= this.mMinFlingDistance * this.mMinFlingDistance
+                && velocityX * dragX + velocityY * dragY > 0.0F;
+        float normalizedX = projectedX / ((float) width * this.mThreshold);
+        float normalizedY = projectedY / ((float) height * this.mThreshold);
+        if (!this.mFling && !(normalizedX * normalizedX + normalizedY * normalizedY >= 1.0F)) {
+            return 0;
+        }
+
+        float octant = (float) Math.atan2((double) projectedY, (double) projectedX) * OCTANTS_PER_RADIAN;
+        int nearest = Math.round(octant);
+        int direction = OCTANT_DIRECTIONS[nearest & 7];
+        if ((allowedDirections & direction) != 0) {
+            return direction;
+        }
+
+        direction = OCTANT_DIRECTIONS[(octant >= (float) nearest ? nearest + 1 : nearest - 1) & 7];
+        return (allowedDirections & direction) != 0 ? direction : 0;
+    }
+
+    /**
+     * Returns how close a drag is to being swiped on release without a fling, from 0
+     * at rest to 1 at the edge of the decision region.
+     */
+    float getProgress(float dragX, float dragY, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return 0.0F;
+        }
+
+        float normalizedX = dragX / ((float) width * this.mThreshold);
+        float normalizedY = dragY / ((float) height * this.mThreshold);
+        return Math.min((float) Math.sqrt((double) (normalizedX * normalizedX + normalizedY * normalizedY)), 1.0F);
+    }
+
+    /**
+     * Whether the last classified release was a fling.
+     */
+    boolean isFling() {
+        return this.mFling;
+    }
+
+    /**
+     * Release speed of the last classified release, in pixels per second.
+     */
+    float getSpeed() {
+        return this.mSpeed;
+    }
+}
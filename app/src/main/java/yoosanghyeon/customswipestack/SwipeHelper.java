@@ -1,72 +1,163 @@
 package yoosanghyeon.customswipestack;
 
-import android.animation.Animator;
-import android.animation.Animator.AnimatorListener;
+import android.view.Choreographer;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
+import android.view.ViewConfiguration;
 import android.view.View.OnTouchListener;
-import android.view.animation.OvershootInterpolator;
-import yoosanghyeon.customswipestack.util.AnimationUtils.AnimationEndListener;
 
 public class SwipeHelper implements OnTouchListener {
+    private static final int MIN_FLING_DURATION = 80;
+    private static final float RESET_DAMPING_RATIO = 0.6F;
     private final SwipeStack mSwipeStack;
+    private final DragTracker mDragTracker = new DragTracker();
+    private final SwipeClassifier mClassifier = new SwipeClassifier();
+    private final SpringAnimator mSpringAnimator = new SpringAnimator();
+    /**
+     * Shared by every card that springs back. Replaced rather than retuned, so a
+     * card that is still moving keeps the spring it was released on.
+     */
+    private Spring mResetSpring = new Spring(RESET_DAMPING_RATIO);
+    private final Choreographer.FrameCallback mDragFrameCallback = new Choreographer.FrameCallback() {
+        public void doFrame(long frameTimeNanos) {
+            SwipeHelper.this.mDragFrameScheduled = false;
+            SwipeHelper.this.applyPendingMove();
+        }
+    };
+    private boolean mDragFrameScheduled;
+    private final SpringAnimator.EndListener mResetListener = new SpringAnimator.EndListener() {
+        public void onSpringEnd(View view) {
+            SwipeHelper.this.mSwipeStack.onSwipeReset();
+        }
+    };
+    private VelocityTracker mVelocityTracker;
+    private final float mMaxFlingVelocity;
+    private final int mTouchSlop;
     private View mObservedView;
     private boolean mListenForTouchEvents;
+    private boolean mTracking;
+    private boolean mDragging;
+    private boolean mCaught;
+    private float mCaughtVelocityX;
+    private float mCaughtVelocityY;
     private float mDownX;
     private float mDownY;
     private float mInitialX;
     private float mInitialY;
     private int mPointerId;
+    private int mSwipeDirection = -1;
+    private long mLastMoveEventTime;
     private float mRotateDegrees = 30.0F;
     private float mOpacityEnd = 1.0F;
     private int mAnimationDuration = 400;
 
     public SwipeHelper(SwipeStack swipeStack) {
         this.mSwipeStack = swipeStack;
+        ViewConfiguration configuration = ViewConfiguration.get(swipeStack.getContext());
+        this.mMaxFlingVelocity = (float) configuration.getScaledMaximumFlingVelocity();
+        this.mTouchSlop = configuration.getScaledTouchSlop();
+        this.mResetSpring.setDuration(this.mAnimationDuration);
     }
 
     public boolean onTouch(View v, MotionEvent event) {
-        switch(event.getAction()) {
-        case 0:
+        switch(event.getActionMasked()) {
+        case MotionEvent.ACTION_DOWN:
             if(this.mListenForTouchEvents && this.mSwipeStack.isEnabled()) {
-                v.getParent().requestDisallowInterceptTouchEvent(true);
-                this.mSwipeStack.onSwipeStart();
+                this.mTracking = true;
+                this.mDragging = false;
                 this.mPointerId = event.getPointerId(0);
-                this.mDownX = event.getX(this.mPointerId);
-                this.mDownY = event.getY(this.mPointerId);
+                this.mDownX = event.getX(0);
+                this.mDownY = event.getY(0);
+                this.catchCard();
+                if(this.mVelocityTracker == null) {
+                    this.mVelocityTracker = VelocityTracker.obtain();
+                } else {
+                    this.mVelocityTracker.clear();
+                }
+
+                this.addMovement(v, event);
                 return true;
             }
 
             return false;
-        case 1:
-            v.getParent().requestDisallowInterceptTouchEvent(false);
-            this.mSwipeStack.onSwipeEnd();
-            this.checkViewPosition();
+        case MotionEvent.ACTION_UP:
+            if(!this.mTracking) {
+                return false;
+            }
+
+            this.mTracking = false;
+            if(!this.mDragging) {
+                this.releaseCaughtCard();
+                return true;
+            }
+
+            this.addMovement(v, event);
+            this.endDrag();
+            this.mSwipeStack.onSwipeReleased(event.getEventTime());
+            float velocityX = 0.0F;
+            float velocityY = 0.0F;
+            if(this.mVelocityTracker != null) {
+                this.mVelocityTracker.computeCurrentVelocity(1000, this.mMaxFlingVelocity);
+                velocityX = this.mVelocityTracker.getXVelocity(this.mPointerId);
+                velocityY = this.mVelocityTracker.getYVelocity(this.mPointerId);
+            }
+
+            this.checkViewPosition(velocityX, velocityY);
             return true;
-        case 2:
+        case MotionEvent.ACTION_MOVE:
+            if(!this.mTracking) {
+                return false;
+            }
+
             int pointerIndex = event.findPointerIndex(this.mPointerId);
             if(pointerIndex < 0) {
                 return false;
             }
 
-            float dx = event.getX(pointerIndex) - this.mDownX;
-            float dy = event.getY(pointerIndex) - this.mDownY;
-            float newX = this.mObservedView.getX() + dx;
-            float newY = this.mObservedView.getY() + dy;
-            this.mObservedView.setX(newX);
-            this.mObservedView.setY(newY);
-            float dragDistanceX = newX - this.mInitialX;
-            float swipeProgress = Math.min(Math.max(dragDistanceX / (float)this.mSwipeStack.getWidth(), -1.0F), 1.0F);
-            this.mSwipeStack.onSwipeProgress(swipeProgress);
-            float alpha;
-            if(this.mRotateDegrees > 0.0F) {
-                alpha = this.mRotateDegrees * swipeProgress;
-                this.mObservedView.setRotation(alpha);
+            this.addMovement(v, event);
+            float x = event.getX(pointerIndex);
+            float y = event.getY(pointerIndex);
+            if(!this.mDragging && !this.startDrag(x, y)) {
+                return this.mTracking;
+            }
+
+            this.mLastMoveEventTime = event.getEventTime();
+            if(this.mDragTracker.onMove(x, y) && !this.mDragFrameScheduled) {
+                this.mDragFrameScheduled = true;
+                Choreographer.getInstance().postFrameCallback(this.mDragFrameCallback);
+            }
+
+            return true;
+        case MotionEvent.ACTION_CANCEL:
+            if(!this.mTracking) {
+                return false;
             }
 
-            if(this.mOpacityEnd < 1.0F) {
-                alpha = 1.0F - Math.min(Math.abs(swipeProgress * 2.0F), 1.0F);
-                this.mObservedView.setAlpha(alpha);
+            this.mTracking = false;
+            if(this.mDragging) {
+                this.endDrag();
+                this.resetViewPosition(0.0F, 0.0F);
+            } else {
+                this.releaseCaughtCard();
+            }
+
+            return true;
+        case MotionEvent.ACTION_POINTER_DOWN:
+            if(this.mTracking) {
+                this.addMovement(v, event);
+            }
+
+            return this.mTracking;
+        case MotionEvent.ACTION_POINTER_UP:
+            if(!this.mTracking) {
+                return false;
+            }
+
+            this.addMovement(v, event);
+            int upIndex = event.getActionIndex();
+            if(event.getPointerId(upIndex) == this.mPointerId) {
+                this.handOffPointer(event, upIndex == 0 ? 1 : 0);
             }
 
             return true;
@@ -75,80 +166,190 @@ public class SwipeHelper implements OnTouchListener {
         }
     }
 
-    private void checkViewPosition() {
-        if(!this.mSwipeStack.isEnabled()) {
-            this.resetViewPosition();
-        } else {
-            float viewCenterHorizontal = this.mObservedView.getX() + (float)(this.mObservedView.getWidth() / 2);
-            float viewCenterVertical = this.mObservedView.getY() + (float)(this.mObservedView.getHeight() / 2);
-            float parentFirstThird = (float)this.mSwipeStack.getWidth() / 3.0F;
-            float parentFirstThirdTop = (float)this.mSwipeStack.getHeight() / 3.0F;
-            float parentLastThird = parentFirstThird * 2.0F;
-            float parentLastThirdTop = parentFirstThirdTop * 2.0F;
-            if(viewCenterHorizontal < parentFirstThird && this.mSwipeStack.getAllowedSwipeDirections() != 2) {
-                this.swipeViewToLeft(this.mAnimationDuration / 2);
-            } else if(viewCenterHorizontal > parentLastThird && this.mSwipeStack.getAllowedSwipeDirections() != 1) {
-                this.swipeViewToRight(this.mAnimationDuration / 2);
-            } else if(viewCenterVertical > parentLastThirdTop && this.mSwipeStack.getAllowedSwipeDirections() != 4) {
-                this.swipeViewToBottom(this.mAnimationDuration / 2);
-            } else if(viewCenterVertical < parentFirstThirdTop && this.mSwipeStack.getAllowedSwipeDirections() != 3) {
-                this.swipeViewToTop(this.mAnimationDuration / 2);
-            } else {
-                this.resetViewPosition();
-            }
+    /**
+     * Claims the gesture once the pointer has moved past the touch slop along an axis
+     * the stack can swipe on. A move along any other axis is left to a scrolling parent.
+     *
+     * @return true if the card is now being dragged
+     */
+    private boolean startDrag(float x, float y) {
+        float dx = Math.abs(x - this.mDownX);
+        float dy = Math.abs(y - this.mDownY);
+        if(dx <= (float)this.mTouchSlop && dy <= (float)this.mTouchSlop) {
+            return false;
+        }
 
+        int allowed = this.mSwipeStack.getAllowedSwipeDirectionFlags();
+        int axisDirections = dx >= dy
+                ? SwipeStack.SWIPE_LEFT | SwipeStack.SWIPE_RIGHT | SwipeStack.SWIPE_DIAGONAL
+                : SwipeStack.SWIPE_TOP | SwipeStack.SWIPE_BOTTOM | SwipeStack.SWIPE_DIAGONAL;
+        if((allowed & axisDirections) == 0) {
+            this.mTracking = false;
+            this.releaseCaughtCard();
+            return false;
         }
+
+        this.mDragging = true;
+        this.mCaught = false;
+        this.mSwipeStack.requestDisallowInterceptTouchEvent(true);
+        this.mSwipeStack.onSwipeStart();
+        // Start from the current position so the card does not jump by the slop.
+        this.mDragTracker.onDown(x, y);
+        return true;
     }
 
-    private void resetViewPosition() {
-        this.mObservedView.animate().x(this.mInitialX).y(this.mInitialY).rotation(0.0F).alpha(1.0F).setDuration((long)this.mAnimationDuration).setInterpolator(new OvershootInterpolator(1.4F)).setListener((AnimatorListener)null);
+    /**
+     * Stops a card that is still springing back where the finger lands on it, so it
+     * can be dragged on from there, and remembers its momentum.
+     */
+    private void catchCard() {
+        this.mCaught = this.mSpringAnimator.isAnimating(this.mObservedView);
+        if(this.mCaught) {
+            this.mCaughtVelocityX = this.mSpringAnimator.getVelocityX(this.mObservedView);
+            this.mCaughtVelocityY = this.mSpringAnimator.getVelocityY(this.mObservedView);
+            this.mSpringAnimator.cancel(this.mObservedView);
+        }
     }
 
-    private void swipeViewToLeft(int duration) {
-        if(this.mListenForTouchEvents) {
-            this.mListenForTouchEvents = false;
-            this.mObservedView.animate().cancel();
-            this.mObservedView.animate().x((float)(-this.mSwipeStack.getWidth()) + this.mObservedView.getX()).rotation(-this.mRotateDegrees).alpha(0.0F).setDuration((long)duration).setListener(new AnimationEndListener() {
-                public void onAnimationEnd(Animator animation) {
-                    SwipeHelper.this.mSwipeStack.onViewSwipedToLeft();
-                }
-            });
+    /**
+     * Lets a caught card spring back with the momentum it had if the touch did not
+     * turn into a drag.
+     */
+    private void releaseCaughtCard() {
+        if(this.mCaught) {
+            this.mCaught = false;
+            this.resetViewPosition(this.mCaughtVelocityX, this.mCaughtVelocityY);
         }
     }
 
-    private void swipeViewToRight(int duration) {
-        if(this.mListenForTouchEvents) {
-            this.mListenForTouchEvents = false;
-            this.mObservedView.animate().cancel();
-            this.mObservedView.animate().x((float)this.mSwipeStack.getWidth() + this.mObservedView.getX()).rotation(this.mRotateDegrees).alpha(0.0F).setDuration((long)duration).setListener(new AnimationEndListener() {
-                public void onAnimationEnd(Animator animation) {
-                    SwipeHelper.this.mSwipeStack.onViewSwipedToRight();
-                }
-            });
+    /**
+     * Continues the drag with another pointer after the active one was lifted.
+     */
+    private void handOffPointer(MotionEvent event, int newIndex) {
+        this.mPointerId = event.getPointerId(newIndex);
+        if(!this.mDragging) {
+            this.mDownX = event.getX(newIndex);
+            this.mDownY = event.getY(newIndex);
+            return;
         }
+
+        // The pending move is relative to the card before this frame's move; apply it
+        // first and rebase the new pointer onto the card's new position.
+        float viewX = this.mObservedView.getX();
+        float viewY = this.mObservedView.getY();
+        this.cancelDragFrame();
+        this.applyPendingMove();
+        this.mDragTracker.onDown(event.getX(newIndex) - (this.mObservedView.getX() - viewX),
+                event.getY(newIndex) - (this.mObservedView.getY() - viewY));
     }
 
-    private void swipeViewToTop(int duration) {
-        if(this.mListenForTouchEvents) {
-            this.mListenForTouchEvents = false;
-            this.mObservedView.animate().cancel();
-            this.mObservedView.animate().y((float)(-this.mSwipeStack.getHeight()) + this.mObservedView.getY()).rotation(0.0F).alpha(0.0F).setDuration((long)duration).setListener(new AnimationEndListener() {
-                public void onAnimationEnd(Animator animation) {
-                    SwipeHelper.this.mSwipeStack.onViewSwipedToTop();
-                }
-            });
+    private void endDrag() {
+        this.cancelDragFrame();
+        this.applyPendingMove();
+        this.mDragging = false;
+        this.mSwipeStack.requestDisallowInterceptTouchEvent(false);
+        this.mSwipeStack.onSwipeEnd();
+    }
+
+    private void applyPendingMove() {
+        if(this.mObservedView == null || !this.mDragTracker.hasPendingMove()) {
+            return;
+        }
+
+        this.mDragTracker.computeFrame(this.mObservedView.getX(), this.mObservedView.getY(), this.mSwipeStack.getWidth());
+        this.mObservedView.setX(this.mDragTracker.getX());
+        this.mObservedView.setY(this.mDragTracker.getY());
+        float swipeProgress = this.mDragTracker.getProgress();
+        this.mSwipeStack.onDragFrame(this.mLastMoveEventTime);
+        this.mSwipeStack.onSwipeProgress(swipeProgress);
+        this.mSwipeStack.onDragProgress(this.mClassifier.getProgress(this.mDragTracker.getX() - this.mInitialX,
+                this.mDragTracker.getY() - this.mInitialY, this.mSwipeStack.getWidth(), this.mSwipeStack.getHeight()));
+        if(this.mRotateDegrees > 0.0F) {
+            this.mObservedView.setRotation(this.mRotateDegrees * swipeProgress);
+        }
+
+        if(this.mOpacityEnd < 1.0F) {
+            this.mObservedView.setAlpha(1.0F - Math.min(Math.abs(swipeProgress * 2.0F), 1.0F));
+        }
+    }
+
+    private void addMovement(View v, MotionEvent event) {
+        if(this.mVelocityTracker != null) {
+            // Events are in card coordinates, but the card follows the finger.
+            float offsetX = v.getX();
+            float offsetY = v.getY();
+            event.offsetLocation(offsetX, offsetY);
+            this.mVelocityTracker.addMovement(event);
+            event.offsetLocation(-offsetX, -offsetY);
         }
     }
 
-    private void swipeViewToBottom(int duration) {
+    private void cancelDragFrame() {
+        if(this.mDragFrameScheduled) {
+            this.mDragFrameScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(this.mDragFrameCallback);
+        }
+    }
+
+    private void checkViewPosition(float velocityX, float velocityY) {
+        if(!this.mSwipeStack.isEnabled()) {
+            this.resetViewPosition(velocityX, velocityY);
+            return;
+        }
+
+        int direction = this.mClassifier.classify(this.mObservedView.getX() - this.mInitialX, this.mObservedView.getY() - this.mInitialY,
+                velocityX, velocityY, this.mSwipeStack.getWidth(), this.mSwipeStack.getHeight(), this.mSwipeStack.getAllowedSwipeDirectionFlags());
+        if(direction == 0) {
+            this.resetViewPosition(velocityX, velocityY);
+        } else if(this.mClassifier.isFling()) {
+            int distance = SwipeStack.getDirectionX(direction) != 0 ? this.mSwipeStack.getWidth() : this.mSwipeStack.getHeight();
+            this.swipeViewTo(direction, this.getFlingDuration(distance, this.mClassifier.getSpeed()), velocityX, velocityY);
+        } else {
+            this.swipeViewTo(direction, this.mAnimationDuration / 2, velocityX, velocityY);
+        }
+    }
+
+    private int getFlingDuration(int distance, float velocity) {
+        int duration = (int)(1000.0F * (float)distance / velocity);
+        return Math.max(MIN_FLING_DURATION, Math.min(duration, this.mAnimationDuration / 2));
+    }
+
+    /**
+     * Springs the card back to its slot, starting at the given velocity in pixels per second.
+     */
+    private void resetViewPosition(float velocityX, float velocityY) {
+        this.mSwipeStack.settlePredictedCards();
+        this.mSpringAnimator.animateTo(this.mObservedView, this.mInitialX, this.mInitialY, 0.0F, 1.0F, this.mResetSpring, this.mResetListener);
+        this.mSpringAnimator.setVelocity(this.mObservedView, velocityX, velocityY);
+    }
+
+    /**
+     * Swipes the card out, keeping the velocity it already has if it is still springing.
+     */
+    private void swipeViewTo(int direction, int duration) {
+        this.swipeViewTo(direction, duration, this.mSpringAnimator.getVelocityX(this.mObservedView),
+                this.mSpringAnimator.getVelocityY(this.mObservedView));
+    }
+
+    private void swipeViewTo(final int direction, int duration, float velocityX, float velocityY) {
         if(this.mListenForTouchEvents) {
             this.mListenForTouchEvents = false;
-            this.mObservedView.animate().cancel();
-            this.mObservedView.animate().y((float)this.mSwipeStack.getHeight() + this.mObservedView.getY()).rotation(this.mRotateDegrees).alpha(0.0F).setDuration((long)duration).setListener(new AnimationEndListener() {
-                public void onAnimationEnd(Animator animation) {
-                    SwipeHelper.this.mSwipeStack.onViewSwipedToBottom();
+            this.cancelTouch();
+            this.mSwipeStack.advancePredictedCards();
+            this.mSwipeDirection = direction;
+            int directionX = SwipeStack.getDirectionX(direction);
+            int directionY = SwipeStack.getDirectionY(direction);
+            float rotation = directionX != 0 ? (float)directionX * this.mRotateDegrees : (directionY > 0 ? this.mRotateDegrees : 0.0F);
+            // Each swipe gets its own spring, as the cards still flying out keep theirs.
+            Spring spring = new Spring(1.0F);
+            spring.setDuration(duration);
+            this.mSpringAnimator.animateTo(this.mObservedView, (float)(directionX * this.mSwipeStack.getWidth()) + this.mObservedView.getX(),
+                    (float)(directionY * this.mSwipeStack.getHeight()) + this.mObservedView.getY(), rotation, 0.0F, spring, new SpringAnimator.EndListener() {
+                public void onSpringEnd(View view) {
+                    SwipeHelper.this.mSwipeStack.onViewSwiped(direction);
                 }
             });
+            this.mSpringAnimator.setVelocity(this.mObservedView, velocityX, velocityY);
         }
     }
 
@@ -158,11 +359,16 @@ public class SwipeHelper implements OnTouchListener {
             this.mObservedView.setOnTouchListener(this);
             this.mInitialX = initialX;
             this.mInitialY = initialY;
+            this.mDragTracker.setInitialX(initialX);
             this.mListenForTouchEvents = true;
+            this.mSwipeDirection = -1;
         }
     }
 
     public void unregisterObservedView() {
+        this.cancelTouch();
+        this.cancelDragFrame();
+        this.mDragTracker.cancelPendingMove();
         if(this.mObservedView != null) {
             this.mObservedView.setOnTouchListener((OnTouchListener)null);
         }
@@ -171,8 +377,76 @@ public class SwipeHelper implements OnTouchListener {
         this.mListenForTouchEvents = false;
     }
 
+    /**
+     * Drops the gesture in progress, for example when the card is swiped away
+     * programmatically under the finger, so that its end is still reported.
+     */
+    private void cancelTouch() {
+        this.mTracking = false;
+        this.mCaught = false;
+        if(this.mDragging) {
+            this.mDragging = false;
+            this.cancelDragFrame();
+            this.mDragTracker.cancelPendingMove();
+            this.mSwipeStack.requestDisallowInterceptTouchEvent(false);
+            this.mSwipeStack.onSwipeEnd();
+        }
+    }
+
+    /**
+     * Stops animating a card that is about to be recycled.
+     */
+    void cancelAnimation(View view) {
+        this.mSpringAnimator.cancel(view);
+    }
+
+    boolean isListening() {
+        return this.mListenForTouchEvents;
+    }
+
+    /**
+     * Returns the direction the observed view is animating out to, or -1.
+     */
+    int getSwipeDirection() {
+        return this.mListenForTouchEvents ? -1 : this.mSwipeDirection;
+    }
+
+    float getDragX() {
+        return this.mObservedView != null ? this.mObservedView.getX() - this.mInitialX : 0.0F;
+    }
+
+    float getDragY() {
+        return this.mObservedView != null ? this.mObservedView.getY() - this.mInitialY : 0.0F;
+    }
+
+    /**
+     * Moves the observed view to a drag offset saved before a configuration change
+     * and settles it as if the finger had been lifted there.
+     */
+    void restoreDrag(float dragX, float dragY) {
+        if(this.mObservedView == null || !this.mListenForTouchEvents) {
+            return;
+        }
+
+        this.mObservedView.setX(this.mInitialX + dragX);
+        this.mObservedView.setY(this.mInitialY + dragY);
+        if(this.mRotateDegrees > 0.0F && this.mSwipeStack.getWidth() > 0) {
+            float swipeProgress = Math.max(-1.0F, Math.min(dragX / (float)this.mSwipeStack.getWidth(), 1.0F));
+            this.mObservedView.setRotation(this.mRotateDegrees * swipeProgress);
+        }
+
+        this.checkViewPosition(0.0F, 0.0F);
+    }
+
+    void swipeViewTo(int direction) {
+        this.swipeViewTo(direction, this.mAnimationDuration);
+    }
+
     public void setAnimationDuration(int duration) {
         this.mAnimationDuration = duration;
+        Spring resetSpring = new Spring(RESET_DAMPING_RATIO);
+        resetSpring.setDuration(duration);
+        this.mResetSpring = resetSpring;
     }
 
     public void setRotation(float rotation) {
@@ -183,19 +457,38 @@ public class SwipeHelper implements OnTouchListener {
         this.mOpacityEnd = alpha;
     }
 
+    public void setFlingVelocity(float velocity) {
+        this.mClassifier.setFlingVelocity(velocity);
+    }
+
+    public void setMinFlingDistance(float distance) {
+        this.mClassifier.setMinFlingDistance(distance);
+    }
+
+    public void setSwipeThreshold(float threshold) {
+        this.mClassifier.setThreshold(threshold);
+    }
+
+    public void recycleVelocityTracker() {
+        if(this.mVelocityTracker != null) {
+            this.mVelocityTracker.recycle();
+            this.mVelocityTracker = null;
+        }
+    }
+
     public void swipeViewToLeft() {
-        this.swipeViewToLeft(this.mAnimationDuration);
+        this.swipeViewTo(SwipeStack.SWIPE_LEFT, this.mAnimationDuration);
     }
 
     public void swipeViewToRight() {
-        this.swipeViewToRight(this.mAnimationDuration);
+        this.swipeViewTo(SwipeStack.SWIPE_RIGHT, this.mAnimationDuration);
     }
 
     public void swipeViewToTop() {
-        this.swipeViewToTop(this.mAnimationDuration);
+        this.swipeViewTo(SwipeStack.SWIPE_TOP, this.mAnimationDuration);
     }
 
     public void swipeViewToBottom() {
-        this.swipeViewToBottom(this.mAnimationDuration);
+        this.swipeViewTo(SwipeStack.SWIPE_BOTTOM, this.mAnimationDuration);
     }
 }
\ No newline at end of file
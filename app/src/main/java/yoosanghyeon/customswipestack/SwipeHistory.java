@@ -0,0 +1,170 @@
+package yoosanghyeon.customswipestack;
+
+import android.view.View;
+
+/**
+ * Bounded history of swiped cards, kept detached but bound so that undoing a swipe
+ * neither inflates nor binds. Entries form an unbroken chain ending right above the
+ * current top card; the oldest entry is recycled once the history is full.
+ */
+class SwipeHistory {
+    private final SwipeStack mSwipeStack;
+    private View[] mViews;
+    private int[] mPositions;
+    private int[] mDirections;
+    private int mStart;
+    private int mSize;
+
+    SwipeHistory(SwipeStack swipeStack, int maxSize) {
+        this.mSwipeStack = swipeStack;
+        this.allocate(maxSize);
+    }
+
+    void setMaxSize(int maxSize) {
+        while (this.mSize > maxSize) {
+            this.evictOldest();
+        }
+
+        View[] views = this.mViews;
+        int[] positions = this.mPositions;
+        int[] directions = this.mDirections;
+        int start = this.mStart;
+        int size = this.mSize;
+        this.allocate(maxSize);
+
+        for (int i = 0; i < size; ++i) {
+            int index = (start + i) % views.length;
+            this.mViews[i] = views[index];
+            this.mPositions[i] = positions[index];
+            this.mDirections[i] = directions[index];
+        }
+
+        this.mSize = size;
+    }
+
+    int getMaxSize() {
+        return this.mViews.length;
+    }
+
+    int size() {
+        return this.mSize;
+    }
+
+    void push(View view, int position, int direction) {
+        if (this.mViews.length == 0) {
+            if (view != null) {
+                this.mSwipeStack.recycleView(view);
+            }
+            return;
+        }
+
+        if (this.mSize == this.mViews.length) {
+            this.evictOldest();
+        }
+
+        int index = this.indexOf(this.mSize);
+        this.mViews[index] = view;
+        this.mPositions[index] = position;
+        this.mDirections[index] = direction;
+        ++this.mSize;
+    }
+
+    int peekPosition() {
+        return this.mPositions[this.indexOf(this.mSize - 1)];
+    }
+
+    int peekDirection() {
+        return this.mDirections[this.indexOf(this.mSize - 1)];
+    }
+
+    int getPosition(int entry) {
+        return this.mPositions[this.indexOf(entry)];
+    }
+
+    int getDirection(int entry) {
+        return this.mDirections[this.indexOf(entry)];
+    }
+
+    /**
+     * Returns the newest entry's view, which is {@code null} for entries restored
+     * from a saved state.
+     */
+    View pop() {
+        int index = this.indexOf(this.mSize - 1);
+        View view = this.mViews[index];
+        this.mViews[index] = null;
+        --this.mSize;
+        return view;
+    }
+
+    /**
+     * Shifts the entries at or after {@code positionStart} by {@code delta}.
+     */
+    void offset(int positionStart, int delta) {
+        for (int i = 0; i < this.mSize; ++i) {
+            int index = this.indexOf(i);
+            if (this.mPositions[index] >= positionStart) {
+                this.mPositions[index] += delta;
+            }
+        }
+    }
+
+    /**
+     * Recycles the entries for positions in {@code [start, end)}, together with every
+     * older entry, since those can no longer be reached by undoing.
+     */
+    void drop(int start, int end) {
+        for (int i = this.mSize - 1; i >= 0; --i) {
+            int position = this.mPositions[this.indexOf(i)];
+            if (position >= start && position < end) {
+                while (i-- >= 0) {
+                    this.evictOldest();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Recycles the views of all entries but keeps their positions and directions, so
+     * undo still works and binds those cards again, as for a restored state.
+     */
+    void recycleViews() {
+        for (int i = 0; i < this.mSize; ++i) {
+            int index = this.indexOf(i);
+            View view = this.mViews[index];
+            this.mViews[index] = null;
+            if (view != null) {
+                this.mSwipeStack.recycleView(view);
+            }
+        }
+    }
+
+    void clear() {
+        while (this.mSize > 0) {
+            this.evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        View view = this.mViews[this.mStart];
+        this.mViews[this.mStart] = null;
+        this.mStart = this.mViews.length > 0 ? (this.mStart + 1) % this.mViews.length : 0;
+        --this.mSize;
+        if (view != null) {
+            this.mSwipeStack.recycleView(view);
+        }
+    }
+
+    private int indexOf(int entry) {
+        return (this.mStart + entry) % this.mViews.length;
+    }
+
+    private void allocate(int maxSize) {
+        this.mViews = new View[Math.max(0, maxSize)];
+        this.mPositions = new int[this.mViews.length];
+        this.mDirections = new int[this.mViews.length];
+        this.mStart = 0;
+        this.mSize = 0;
+    }
+}
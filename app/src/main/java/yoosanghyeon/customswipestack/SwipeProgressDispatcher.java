@@ -0,0 +1,232 @@
+package yoosanghyeon.customswipestack;
+
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.View;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Delivers swipe progress to a {@link SwipeStack.SwipeProgressListener} away from
+ * the touch path. Depending on the mode, intermediate values are dropped and only
+ * the latest progress is delivered, together with the number of dropped values.
+ */
+class SwipeProgressDispatcher implements Runnable, Choreographer.FrameCallback {
+    private static final int EVENT_START = 0;
+    private static final int EVENT_END = 1;
+
+    private final View mHost;
+    /**
+     * Written on the main thread and read by the executor in
+     * {@link SwipeStack#PROGRESS_DISPATCH_EXECUTOR} mode.
+     */
+    private volatile SwipeStack.SwipeProgressListener mListener;
+    private Executor mExecutor;
+    private int mMode;
+    private int mMinIntervalMillis;
+    private long mLastDispatchMillis;
+    private int mPendingPosition;
+    private float mPendingProgress;
+    private int mDroppedCount;
+    private boolean mHasPending;
+    private boolean mScheduled;
+
+    SwipeProgressDispatcher(View host) {
+        this.mHost = host;
+        this.mMode = SwipeStack.PROGRESS_DISPATCH_IMMEDIATE;
+    }
+
+    void setListener(SwipeStack.SwipeProgressListener listener, Executor executor) {
+        this.cancel();
+        this.mListener = listener;
+        this.mExecutor = executor;
+        if (executor != null) {
+            this.mMode = SwipeStack.PROGRESS_DISPATCH_EXECUTOR;
+        } else if (this.mMode == SwipeStack.PROGRESS_DISPATCH_EXECUTOR) {
+            this.mMode = SwipeStack.PROGRESS_DISPATCH_IMMEDIATE;
+        }
+    }
+
+    void setMode(int mode) {
+        if (mode == SwipeStack.PROGRESS_DISPATCH_EXECUTOR && this.mExecutor == null) {
+            throw new IllegalStateException("Set a listener executor with setSwipeProgressListener(listener, executor)");
+        }
+
+        this.flush();
+        this.mMode = mode;
+    }
+
+    int getMode() {
+        return this.mMode;
+    }
+
+    void setMinInterval(int intervalMillis) {
+        this.mMinIntervalMillis = intervalMillis;
+    }
+
+    void dispatchStart(int position) {
+        if (this.mListener == null) {
+            return;
+        }
+
+        this.flush();
+        if (this.mMode == SwipeStack.PROGRESS_DISPATCH_EXECUTOR) {
+            this.mExecutor.execute(new EventRunnable(this.mListener, EVENT_START, position));
+        } else {
+            this.mListener.onSwipeStart(position);
+        }
+    }
+
+    void dispatchProgress(int position, float progress) {
+        if (this.mListener == null) {
+            return;
+        }
+
+        switch (this.mMode) {
+            case SwipeStack.PROGRESS_DISPATCH_FRAME:
+                this.setPending(position, progress);
+                if (!this.mScheduled) {
+                    this.mScheduled = true;
+                    Choreographer.getInstance().postFrameCallback(this);
+                }
+                break;
+            case SwipeStack.PROGRESS_DISPATCH_RATE_LIMITED:
+                long now = SystemClock.uptimeMillis();
+                long nextDispatch = this.mLastDispatchMillis + this.mMinIntervalMillis;
+                this.setPending(position, progress);
+                if (now >= nextDispatch && !this.mScheduled) {
+                    this.deliverPending();
+                } else if (!this.mScheduled) {
+                    this.mScheduled = true;
+                    this.mHost.postDelayed(this, nextDispatch - now);
+                }
+                break;
+            case SwipeStack.PROGRESS_DISPATCH_EXECUTOR:
+                boolean schedule;
+                synchronized (this) {
+                    this.setPending(position, progress);
+                    schedule = !this.mScheduled;
+                    this.mScheduled = true;
+                }
+
+                if (schedule) {
+                    this.mExecutor.execute(this);
+                }
+                break;
+            default:
+                this.deliver(this.mListener, position, progress, 0);
+        }
+    }
+
+    void dispatchEnd(int position) {
+        if (this.mListener == null) {
+            return;
+        }
+
+        this.flush();
+        if (this.mMode == SwipeStack.PROGRESS_DISPATCH_EXECUTOR) {
+            this.mExecutor.execute(new EventRunnable(this.mListener, EVENT_END, position));
+        } else {
+            this.mListener.onSwipeEnd(position);
+        }
+    }
+
+    void cancel() {
+        synchronized (this) {
+            this.mHasPending = false;
+            this.mDroppedCount = 0;
+        }
+
+        if (this.mScheduled && this.mMode != SwipeStack.PROGRESS_DISPATCH_EXECUTOR) {
+            this.mScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+            this.mHost.removeCallbacks(this);
+        }
+    }
+
+    public void doFrame(long frameTimeNanos) {
+        this.mScheduled = false;
+        this.deliverPending();
+    }
+
+    public void run() {
+        if (this.mMode == SwipeStack.PROGRESS_DISPATCH_EXECUTOR) {
+            synchronized (this) {
+                this.mScheduled = false;
+            }
+        } else {
+            this.mScheduled = false;
+        }
+
+        this.deliverPending();
+    }
+
+    private void flush() {
+        if (this.mMode != SwipeStack.PROGRESS_DISPATCH_EXECUTOR && this.mScheduled) {
+            this.mScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+            this.mHost.removeCallbacks(this);
+            this.deliverPending();
+        }
+    }
+
+    private void setPending(int position, float progress) {
+        if (this.mHasPending) {
+            ++this.mDroppedCount;
+        }
+
+        this.mPendingPosition = position;
+        this.mPendingProgress = progress;
+        this.mHasPending = true;
+    }
+
+    private void deliverPending() {
+        SwipeStack.SwipeProgressListener listener;
+        int position;
+        float progress;
+        int droppedCount;
+        synchronized (this) {
+            if (!this.mHasPending || this.mListener == null) {
+                return;
+            }
+
+            listener = this.mListener;
+            position = this.mPendingPosition;
+            progress = this.mPendingProgress;
+            droppedCount = this.mDroppedCount;
+            this.mHasPending = false;
+            this.mDroppedCount = 0;
+        }
+
+        this.mLastDispatchMillis = SystemClock.uptimeMillis();
+        this.deliver(listener, position, progress, droppedCount);
+    }
+
+    private void deliver(SwipeStack.SwipeProgressListener listener, int position, float progress, int droppedCount) {
+        if (listener instanceof SwipeStack.CoalescedSwipeProgressListener) {
+            ((SwipeStack.CoalescedSwipeProgressListener) listener).onSwipeProgress(position, progress, droppedCount);
+        } else {
+            listener.onSwipeProgress(position, progress);
+        }
+    }
+
+    private static class EventRunnable implements Runnable {
+        private final SwipeStack.SwipeProgressListener mListener;
+        private final int mEvent;
+        private final int mPosition;
+
+        EventRunnable(SwipeStack.SwipeProgressListener listener, int event, int position) {
+            this.mListener = listener;
+            this.mEvent = event;
+            this.mPosition = position;
+        }
+
+        public void run() {
+            if (this.mEvent == EVENT_START) {
+                this.mListener.onSwipeStart(this.mPosition);
+            } else {
+                this.mListener.onSwipeEnd(this.mPosition);
+            }
+        }
+    }
+}
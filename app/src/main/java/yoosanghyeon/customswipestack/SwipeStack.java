@@ -1,22 +1,29 @@
 package yoosanghyeon.customswipestack;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.database.DataSetObserver;
-import android.graphics.Paint;
+import android.graphics.Rect;
 import android.os.Build.VERSION;
 import android.os.Bundle;
 import android.os.Parcelable;
+import android.os.SystemClock;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
+import android.view.KeyEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.view.accessibility.AccessibilityNodeInfo.AccessibilityAction;
 import android.widget.Adapter;
 
 import yoosanghyeon.customswipestack.R.id;
+import yoosanghyeon.customswipestack.R.string;
 import yoosanghyeon.customswipestack.R.styleable;
 
-import java.util.Random;
+import java.util.concurrent.Executor;
 
 
 public class SwipeStack extends ViewGroup {
@@ -26,6 +33,32 @@ public class SwipeStack extends ViewGroup {
     public static final int SWIPE_DIRECTION_ONLY_TOP = 3;
     public static final int SWIPE_DIRECTION_ONLY_BOTTOM = 4;
 
+    public static final int SWIPE_LEFT = 1;
+    public static final int SWIPE_RIGHT = 1 << 1;
+    public static final int SWIPE_TOP = 1 << 2;
+    public static final int SWIPE_BOTTOM = 1 << 3;
+    public static final int SWIPE_TOP_LEFT = 1 << 4;
+    public static final int SWIPE_TOP_RIGHT = 1 << 5;
+    public static final int SWIPE_BOTTOM_LEFT = 1 << 6;
+    public static final int SWIPE_BOTTOM_RIGHT = 1 << 7;
+    public static final int SWIPE_STRAIGHT = SWIPE_LEFT | SWIPE_RIGHT | SWIPE_TOP | SWIPE_BOTTOM;
+    public static final int SWIPE_DIAGONAL = SWIPE_TOP_LEFT | SWIPE_TOP_RIGHT | SWIPE_BOTTOM_LEFT | SWIPE_BOTTOM_RIGHT;
+    public static final int SWIPE_ALL = SWIPE_STRAIGHT | SWIPE_DIAGONAL;
+
+    public static final int PROGRESS_DISPATCH_IMMEDIATE = 0;
+    public static final int PROGRESS_DISPATCH_FRAME = 1;
+    public static final int PROGRESS_DISPATCH_RATE_LIMITED = 2;
+    public static final int PROGRESS_DISPATCH_EXECUTOR = 3;
+
+    public static final int LAYER_MODE_NONE = 0;
+    public static final int LAYER_MODE_ALWAYS = 1;
+    public static final int LAYER_MODE_ANIMATING = 2;
+
+    public static final int STACK_LAYOUT_STACK = 0;
+    public static final int STACK_LAYOUT_FAN = 1;
+    public static final int STACK_LAYOUT_CASCADE = 2;
+    public static final int STACK_LAYOUT_PEEK = 3;
+
     public static final int DEFAULT_ANIMATION_DURATION = 300;
     public static final int DEFAULT_STACK_SIZE = 3;
     public static final int DEFAULT_STACK_ROTATION = 8;
@@ -33,11 +66,23 @@ public class SwipeStack extends ViewGroup {
     public static final float DEFAULT_SWIPE_OPACITY = 1f;
     public static final float DEFAULT_SCALE_FACTOR = 1f;
     public static final boolean DEFAULT_DISABLE_HW_ACCELERATION = true;
+    public static final int DEFAULT_PREFETCH_COUNT = 1;
+    public static final int DEFAULT_PROGRESS_DISPATCH_INTERVAL = 50;
+    public static final int DEFAULT_UNDO_HISTORY_SIZE = 3;
+    public static final int DEFAULT_PRELOAD_COUNT = 3;
+    public static final float DEFAULT_PREDICTIVE_THRESHOLD = 0.5F;
     private static final String KEY_SUPER_STATE = "superState";
     private static final String KEY_CURRENT_INDEX = "currentIndex";
+    private static final String KEY_UNDO_POSITIONS = "undoPositions";
+    private static final String KEY_UNDO_DIRECTIONS = "undoDirections";
+    private static final String KEY_SWIPE_DIRECTION = "swipeDirection";
+    private static final String KEY_DRAG_X = "dragX";
+    private static final String KEY_DRAG_Y = "dragY";
     private Adapter mAdapter;
-    private Random mRandom;
+    private SwipeStack.CardTransformProvider mTransformProvider;
     private int mAllowedSwipeDirections;
+    private int mSwipeDirectionFlags;
+    private float mSwipeThreshold;
     private int mAnimationDuration;
     private int mCurrentViewIndex;
     private int mNumberOfStackedViews;
@@ -46,13 +91,47 @@ public class SwipeStack extends ViewGroup {
     private float mSwipeRotation;
     private float mSwipeOpacity;
     private float mScaleFactor;
+    private StackLayout mStackLayout;
+    private StackLayoutStrategy mLayoutStrategy;
+    private int mLaidOutCardCount;
+    private final Rect mLaidOutPadding = new Rect();
+    private final float[] mSlotTarget = new float[4];
+    private float mPredictiveThreshold;
+    private View mPredictedView;
+    private boolean mPredicting;
+    private int mPrefetchCount;
+    private int mUndoHistorySize;
+    private int mPreloadCount;
+    private int mFlingVelocity;
+    private int mMinFlingDistance;
     private boolean mDisableHwAcceleration;
+    private int mLayerMode;
+    private boolean mIsDragging;
     private boolean mIsFirstLayout;
+    private int mPendingSwipeDirection;
+    private boolean mHasPendingDrag;
+    private float mPendingDragX;
+    private float mPendingDragY;
+    private int mQueuedSwipeDirection;
+    private int mQueuedSwipeCount;
     private View mTopView;
     private SwipeHelper mSwipeHelper;
+    private RecycledViewPool mViewPool;
+    private boolean mViewPoolAttached;
+    private CardPrefetcher mPrefetcher;
+    private CardPreloader mPreloader;
+    private CardBitmapPool mBitmapPool;
+    private StackAnimator mStackAnimator;
+    private CardLayerController mLayerController;
+    private SwipeHistory mSwipeHistory;
+    private ComponentCallbacks2 mComponentCallbacks;
     private DataSetObserver mDataObserver;
+    private SwipeStackAdapter.ItemObserver mItemObserver;
     private SwipeStack.SwipeStackListener mListener;
-    private SwipeStack.SwipeProgressListener mProgressListener;
+    private SwipeProgressDispatcher mProgressDispatcher;
+    private int mProgressDispatchMode;
+    private SwipeStackMetrics mMetrics;
+    private SwipeStack.MetricsListener mMetricsListener;
 
     public SwipeStack(Context context) {
         this(context, (AttributeSet) null);
@@ -65,6 +144,7 @@ public class SwipeStack extends ViewGroup {
     public SwipeStack(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
         this.mIsFirstLayout = true;
+        this.mPendingSwipeDirection = -1;
         this.readAttributes(attrs);
         this.initialize();
     }
@@ -76,6 +156,11 @@ public class SwipeStack extends ViewGroup {
             mAllowedSwipeDirections =
                     attrs.getInt(R.styleable.SwipeStack_allowed_swipe_directions,
                             SWIPE_DIRECTION_BOTH);
+            mSwipeDirectionFlags =
+                    attrs.getInt(R.styleable.SwipeStack_swipe_directions,
+                            toSwipeDirectionFlags(mAllowedSwipeDirections));
+            mSwipeThreshold =
+                    attrs.getFloat(R.styleable.SwipeStack_swipe_threshold, SwipeClassifier.DEFAULT_THRESHOLD);
             mAnimationDuration =
                     attrs.getInt(R.styleable.SwipeStack_animation_duration,
                             DEFAULT_ANIMATION_DURATION);
@@ -92,9 +177,31 @@ public class SwipeStack extends ViewGroup {
                     attrs.getFloat(R.styleable.SwipeStack_swipe_opacity, DEFAULT_SWIPE_OPACITY);
             mScaleFactor =
                     attrs.getFloat(R.styleable.SwipeStack_scale_factor, DEFAULT_SCALE_FACTOR);
+            mLayoutStrategy =
+                    createLayoutStrategy(attrs.getInt(R.styleable.SwipeStack_stack_layout, STACK_LAYOUT_STACK));
             mDisableHwAcceleration =
                     attrs.getBoolean(R.styleable.SwipeStack_disable_hw_acceleration,
                             DEFAULT_DISABLE_HW_ACCELERATION);
+            mLayerMode =
+                    attrs.getInt(R.styleable.SwipeStack_layer_mode,
+                            mDisableHwAcceleration ? LAYER_MODE_NONE : LAYER_MODE_ANIMATING);
+            mPrefetchCount =
+                    attrs.getInt(R.styleable.SwipeStack_prefetch_count, DEFAULT_PREFETCH_COUNT);
+            mUndoHistorySize =
+                    attrs.getInt(R.styleable.SwipeStack_undo_history_size, DEFAULT_UNDO_HISTORY_SIZE);
+            mPreloadCount =
+                    attrs.getInt(R.styleable.SwipeStack_preload_count, DEFAULT_PRELOAD_COUNT);
+            mPredictiveThreshold =
+                    attrs.getFloat(R.styleable.SwipeStack_predictive_threshold, DEFAULT_PREDICTIVE_THRESHOLD);
+            mProgressDispatchMode =
+                    attrs.getInt(R.styleable.SwipeStack_progress_dispatch_mode,
+                            PROGRESS_DISPATCH_IMMEDIATE);
+            mFlingVelocity =
+                    attrs.getDimensionPixelSize(R.styleable.SwipeStack_fling_velocity,
+                            getResources().getDimensionPixelSize(R.dimen.default_fling_velocity));
+            mMinFlingDistance =
+                    attrs.getDimensionPixelSize(R.styleable.SwipeStack_min_fling_distance,
+                            getResources().getDimensionPixelSize(R.dimen.default_min_fling_distance));
         } finally {
             attrs.recycle();
         }
@@ -102,139 +209,765 @@ public class SwipeStack extends ViewGroup {
     }
 
     private void initialize() {
-        this.mRandom = new Random();
+        this.mTransformProvider = new SeededCardTransformProvider(this.mViewRotation);
         this.setClipToPadding(false);
         this.setClipChildren(false);
+        this.setFocusable(true);
         this.mSwipeHelper = new SwipeHelper(this);
         this.mSwipeHelper.setAnimationDuration(this.mAnimationDuration);
         this.mSwipeHelper.setRotation(this.mSwipeRotation);
         this.mSwipeHelper.setOpacityEnd(this.mSwipeOpacity);
+        this.mSwipeHelper.setFlingVelocity((float) this.mFlingVelocity);
+        this.mSwipeHelper.setMinFlingDistance((float) this.mMinFlingDistance);
+        this.mSwipeHelper.setSwipeThreshold(this.mSwipeThreshold);
+        this.mViewPool = new RecycledViewPool();
+        this.attachViewPool();
+        this.mViewPool.setMaxRecycledViews(this.mNumberOfStackedViews + this.mPrefetchCount);
+        this.mPrefetcher = new CardPrefetcher(this, this.mPrefetchCount);
+        this.mPreloader = new CardPreloader(this);
+        this.mProgressDispatcher = new SwipeProgressDispatcher(this);
+        this.mProgressDispatcher.setMinInterval(DEFAULT_PROGRESS_DISPATCH_INTERVAL);
+        this.mProgressDispatcher.setMode(this.mProgressDispatchMode);
+        this.mLayerController = new CardLayerController(this.mLayerMode);
+        this.mStackAnimator = new StackAnimator(this.mLayerController);
+        this.mStackAnimator.setDuration(this.mAnimationDuration);
+        this.mSwipeHistory = new SwipeHistory(this, this.mUndoHistorySize);
+        this.mComponentCallbacks = new ComponentCallbacks2() {
+            public void onTrimMemory(int level) {
+                SwipeStack.this.onTrimMemory(level);
+            }
+
+            public void onConfigurationChanged(Configuration newConfig) {
+            }
+
+            public void onLowMemory() {
+                SwipeStack.this.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+            }
+        };
+        this.mStackLayout = new StackLayout(this.mViewSpacing, this.mScaleFactor, this.mNumberOfStackedViews);
+        this.mLaidOutCardCount = -1;
         this.mDataObserver = new DataSetObserver() {
             public void onChanged() {
                 super.onChanged();
+                SwipeStack.this.mPrefetcher.clear();
+                SwipeStack.this.mSwipeHistory.clear();
+                SwipeStack.this.mPreloader.reset();
                 SwipeStack.this.invalidate();
                 SwipeStack.this.requestLayout();
             }
         };
+        this.mItemObserver = new SwipeStackAdapter.ItemObserver() {
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                SwipeStack.this.onItemRangeInserted(positionStart, itemCount);
+            }
+
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                SwipeStack.this.onItemRangeRemoved(positionStart, itemCount);
+            }
+
+            public void onItemRangeChanged(int positionStart, int itemCount) {
+                SwipeStack.this.onItemRangeChanged(positionStart, itemCount);
+            }
+        };
+    }
+
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        this.attachViewPool();
+        this.mPrefetcher.onAttachedToWindow();
+        this.getContext().getApplicationContext().registerComponentCallbacks(this.mComponentCallbacks);
+        if (this.mMetrics != null) {
+            this.mMetrics.onAttachedToWindow();
+        }
+    }
+
+    protected void onDetachedFromWindow() {
+        this.detachViewPool();
+        this.mPrefetcher.onDetachedFromWindow();
+        this.getContext().getApplicationContext().unregisterComponentCallbacks(this.mComponentCallbacks);
+        this.mStackAnimator.endAll();
+        this.mProgressDispatcher.cancel();
+        this.mSwipeHelper.recycleVelocityTracker();
+        if (this.mMetrics != null) {
+            this.mMetrics.stop();
+        }
+
+        super.onDetachedFromWindow();
+    }
+
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        this.mPrefetcher.clear();
+        this.updateBitmapPoolWindow();
     }
 
     public Parcelable onSaveInstanceState() {
         Bundle bundle = new Bundle();
         bundle.putParcelable("superState", super.onSaveInstanceState());
         bundle.putInt("currentIndex", this.mCurrentViewIndex - this.getChildCount());
+        int[] undoPositions = new int[this.mSwipeHistory.size()];
+        int[] undoDirections = new int[undoPositions.length];
+
+        for (int i = 0; i < undoPositions.length; ++i) {
+            undoPositions[i] = this.mSwipeHistory.getPosition(i);
+            undoDirections[i] = this.mSwipeHistory.getDirection(i);
+        }
+
+        bundle.putIntArray(KEY_UNDO_POSITIONS, undoPositions);
+        bundle.putIntArray(KEY_UNDO_DIRECTIONS, undoDirections);
+        if (this.mTopView != null) {
+            bundle.putInt(KEY_SWIPE_DIRECTION, this.mSwipeHelper.getSwipeDirection());
+            if (this.mIsDragging) {
+                bundle.putFloat(KEY_DRAG_X, this.mSwipeHelper.getDragX());
+                bundle.putFloat(KEY_DRAG_Y, this.mSwipeHelper.getDragY());
+            }
+        }
+
         return bundle;
     }
 
     public void onRestoreInstanceState(Parcelable state) {
         if (state instanceof Bundle) {
             Bundle bundle = (Bundle) state;
-            this.mCurrentViewIndex = bundle.getInt("currentIndex");
+            int currentPosition = bundle.getInt("currentIndex");
+            // A stack that outlived the change and still shows the position keeps its cards.
+            if (this.getChildCount() == 0 || this.getCurrentPosition() != currentPosition) {
+                this.mPrefetcher.clear();
+                this.mSwipeHistory.clear();
+                this.mPreloader.reset();
+                this.recycleAllViews();
+                this.removeAllViewsInLayout();
+                this.mCurrentViewIndex = currentPosition;
+                this.restoreSwipeHistory(bundle.getIntArray(KEY_UNDO_POSITIONS), bundle.getIntArray(KEY_UNDO_DIRECTIONS));
+                this.mPendingSwipeDirection = bundle.getInt(KEY_SWIPE_DIRECTION, -1);
+                this.mHasPendingDrag = bundle.containsKey(KEY_DRAG_X);
+                this.mPendingDragX = bundle.getFloat(KEY_DRAG_X);
+                this.mPendingDragY = bundle.getFloat(KEY_DRAG_Y);
+                this.requestLayout();
+            }
+
             state = bundle.getParcelable("superState");
         }
 
         super.onRestoreInstanceState(state);
     }
 
+    private void restoreSwipeHistory(int[] positions, int[] directions) {
+        if (positions == null || directions == null) {
+            return;
+        }
+
+        for (int i = 0; i < positions.length; ++i) {
+            this.mSwipeHistory.push((View) null, positions[i], directions[i]);
+        }
+    }
+
+    private void restorePendingSwipe() {
+        if (this.mTopView == null) {
+            return;
+        }
+
+        if (this.mPendingSwipeDirection >= 0) {
+            this.mLayerController.promote(this.mTopView);
+            this.mSwipeHelper.swipeViewTo(this.mPendingSwipeDirection);
+        } else if (this.mHasPendingDrag) {
+            this.mLayerController.promote(this.mTopView);
+            this.mSwipeHelper.restoreDrag(this.mPendingDragX, this.mPendingDragY);
+        }
+
+        this.mPendingSwipeDirection = -1;
+        this.mHasPendingDrag = false;
+    }
+
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        long startNanos = this.mMetrics != null ? System.nanoTime() : 0L;
         if (this.mAdapter != null && !this.mAdapter.isEmpty()) {
             for (int x = this.getChildCount(); x < this.mNumberOfStackedViews && this.mCurrentViewIndex < this.mAdapter.getCount(); ++x) {
                 this.addNextView();
             }
 
-            this.reorderItems();
+            this.reorderItems(changed);
             this.mIsFirstLayout = false;
+            if (this.mPendingSwipeDirection >= 0 || this.mHasPendingDrag) {
+                this.restorePendingSwipe();
+            }
+
+            if (this.mQueuedSwipeCount > 0) {
+                this.startQueuedSwipe();
+            }
+
+            this.mPrefetcher.schedule();
+            this.updatePreloadWindow();
         } else {
             this.mCurrentViewIndex = 0;
+            this.mPrefetcher.clear();
+            this.mSwipeHistory.clear();
+            this.mPreloader.reset();
+            this.recycleAllViews();
             this.removeAllViewsInLayout();
         }
+
+        if (this.mMetrics != null) {
+            this.mMetrics.recordDuration(SwipeStackMetrics.METRIC_LAYOUT, System.nanoTime() - startNanos);
+        }
     }
 
     private void addNextView() {
         if (this.mCurrentViewIndex < this.mAdapter.getCount()) {
-            View bottomView = this.mAdapter.getView(this.mCurrentViewIndex, (View) null, this);
-            bottomView.setTag(id.new_view, Boolean.valueOf(true));
-            if (!this.mDisableHwAcceleration) {
-                bottomView.setLayerType(2, (Paint) null);
+            View bottomView = this.mPrefetcher.takePrefetchedView(this.mCurrentViewIndex);
+            if (bottomView == null) {
+                bottomView = this.createCardView(this.mCurrentViewIndex);
             }
 
-            if (this.mViewRotation > 0) {
-                bottomView.setRotation((float) (this.mRandom.nextInt(this.mViewRotation) - this.mViewRotation / 2));
-            }
+            this.addViewInLayout(bottomView, 0, bottomView.getLayoutParams(), true);
+            ++this.mCurrentViewIndex;
+        }
 
-            int width = this.getWidth() - (this.getPaddingLeft() + this.getPaddingRight());
-            int height = this.getHeight() - (this.getPaddingTop() + this.getPaddingBottom());
-            LayoutParams params = bottomView.getLayoutParams();
-            if (params == null) {
-                params = new LayoutParams(-2, -2);
-            }
+    }
 
-            int measureSpecWidth = -2147483648;
-            int measureSpecHeight = -2147483648;
-            if (params.width == -1) {
-                measureSpecWidth = 1073741824;
-            }
+    View createCardView(int position) {
+        int viewType = this.mAdapter.getItemViewType(position);
+        View convertView = this.mViewPool.getRecycledView(viewType);
+        long startNanos = this.mMetrics != null ? System.nanoTime() : 0L;
+        View cardView = this.mAdapter.getView(position, convertView, this);
+        if (this.mMetrics != null) {
+            this.mMetrics.recordDuration(SwipeStackMetrics.METRIC_BIND, System.nanoTime() - startNanos);
+        }
 
-            if (params.height == -1) {
-                measureSpecHeight = 1073741824;
-            }
+        this.mViewPool.onViewBound(convertView, cardView);
+        this.prepareCardView(cardView, viewType, position);
+        return cardView;
+    }
 
-            bottomView.measure(measureSpecWidth | width, measureSpecHeight | height);
-            this.addViewInLayout(bottomView, 0, params, true);
-            ++this.mCurrentViewIndex;
+    private void prepareCardView(View cardView, int viewType, int position) {
+        cardView.setTag(id.new_view, Boolean.valueOf(true));
+        cardView.setTag(id.view_type, Integer.valueOf(viewType));
+        this.mLayerController.onCardPrepared(cardView);
+
+        CardTransform transform = (CardTransform) cardView.getTag(id.card_transform);
+        if (transform == null) {
+            transform = new CardTransform();
+            cardView.setTag(id.card_transform, transform);
+        } else {
+            transform.reset();
+        }
+
+        this.mTransformProvider.getTransform(position, transform);
+        cardView.setRotation(transform.getRotation());
+
+        this.measureCardView(cardView);
+    }
+
+    private void measureCardView(View cardView) {
+        int width = this.getWidth() - (this.getPaddingLeft() + this.getPaddingRight());
+        int height = this.getHeight() - (this.getPaddingTop() + this.getPaddingBottom());
+        LayoutParams params = cardView.getLayoutParams();
+        if (params == null) {
+            params = new LayoutParams(-2, -2);
+            cardView.setLayoutParams(params);
+        }
+
+        int measureSpecWidth = -2147483648;
+        int measureSpecHeight = -2147483648;
+        if (params.width == -1) {
+            measureSpecWidth = 1073741824;
         }
 
+        if (params.height == -1) {
+            measureSpecHeight = 1073741824;
+        }
+
+        cardView.measure(measureSpecWidth | width, measureSpecHeight | height);
+    }
+
+    boolean canPrefetch() {
+        return this.mAdapter != null && !this.mIsFirstLayout && this.getWidth() > 0 && this.getHeight() > 0;
+    }
+
+    int getNextPosition() {
+        return this.mCurrentViewIndex;
     }
 
-    private void reorderItems() {
+    private void reorderItems(boolean changed) {
+        boolean relayoutAll = changed || this.mLaidOutCardCount != this.getChildCount()
+                || this.mLaidOutPadding.left != this.getPaddingLeft() || this.mLaidOutPadding.top != this.getPaddingTop()
+                || this.mLaidOutPadding.right != this.getPaddingRight() || this.mLaidOutPadding.bottom != this.getPaddingBottom();
+        this.mLaidOutCardCount = this.getChildCount();
+        this.mLaidOutPadding.set(this.getPaddingLeft(), this.getPaddingTop(), this.getPaddingRight(), this.getPaddingBottom());
+        this.mStackLayout.begin(this.getChildCount(),
+                this.getWidth() - (this.getPaddingLeft() + this.getPaddingRight()),
+                this.getHeight() - (this.getPaddingTop() + this.getPaddingBottom()));
+        this.mLayoutStrategy.computeLayout(this.mStackLayout);
+
         for (int x = 0; x < this.getChildCount(); ++x) {
             View childView = this.getChildAt(x);
             int topViewIndex = this.getChildCount() - 1;
-            int distanceToViewAbove = topViewIndex * this.mViewSpacing - x * this.mViewSpacing;
-            int newPositionX = (this.getWidth() - childView.getMeasuredWidth()) / 2;
-            int newPositionY = distanceToViewAbove + this.getPaddingTop();
-            childView.layout(newPositionX, this.getPaddingTop(), newPositionX + childView.getMeasuredWidth(), this.getPaddingTop() + childView.getMeasuredHeight());
-            if (VERSION.SDK_INT >= 21) {
-                childView.setTranslationZ((float) x);
+            int slot = topViewIndex - x;
+            // A card still in the slot it was laid out for has nothing to lay out or animate.
+            if (!relayoutAll && !childView.isLayoutRequested() && Integer.valueOf(slot).equals(childView.getTag(id.stack_slot))
+                    && (x != topViewIndex || childView == this.mTopView)) {
+                continue;
             }
 
+            childView.setTag(id.stack_slot, Integer.valueOf(slot));
+            this.layoutCardView(childView, x);
+
             boolean isNewView = ((Boolean) childView.getTag(id.new_view)).booleanValue();
-            float scaleFactor = (float) Math.pow((double) this.mScaleFactor, (double) (this.getChildCount() - x));
+            this.computeSlotTarget(childView, slot);
+            float targetX = this.mSlotTarget[0];
+            float targetY = this.mSlotTarget[1];
+            float scaleFactor = this.mSlotTarget[2];
+            float rotation = this.mSlotTarget[3];
             if (x == topViewIndex) {
                 this.mSwipeHelper.unregisterObservedView();
                 this.mTopView = childView;
-                this.mSwipeHelper.registerObservedView(this.mTopView, (float) newPositionX, (float) newPositionY);
+                this.mSwipeHelper.registerObservedView(this.mTopView, targetX, targetY);
             }
 
             if (!this.mIsFirstLayout) {
                 if (isNewView) {
                     childView.setTag(id.new_view, Boolean.valueOf(false));
                     childView.setAlpha(0.0F);
-                    childView.setY((float) newPositionY);
+                    childView.setX(targetX);
+                    childView.setY(targetY);
                     childView.setScaleY(scaleFactor);
                     childView.setScaleX(scaleFactor);
+                    childView.setRotation(rotation);
                 }
 
-                childView.animate().y((float) newPositionY).scaleX(scaleFactor).scaleY(scaleFactor).alpha(1.0F).setDuration((long) this.mAnimationDuration);
+                this.mStackAnimator.animateTo(childView, targetX, targetY, scaleFactor, rotation);
             } else {
                 childView.setTag(id.new_view, Boolean.valueOf(false));
-                childView.setY((float) newPositionY);
+                childView.setX(targetX);
+                childView.setY(targetY);
                 childView.setScaleY(scaleFactor);
                 childView.setScaleX(scaleFactor);
+                childView.setRotation(rotation);
+            }
+        }
+
+        if (!this.mIsFirstLayout) {
+            this.mStackAnimator.start();
+            if (this.mMetrics != null) {
+                this.mMetrics.startFrameMonitor();
+            }
+        }
+
+    }
+
+    private void layoutCardView(View childView, int index) {
+        CardTransform transform = (CardTransform) childView.getTag(id.card_transform);
+        int newPositionX = (this.getWidth() - childView.getMeasuredWidth()) / 2 + Math.round(transform.getOffsetX());
+        childView.layout(newPositionX, this.getPaddingTop(), newPositionX + childView.getMeasuredWidth(), this.getPaddingTop() + childView.getMeasuredHeight());
+        if (VERSION.SDK_INT >= 21) {
+            childView.setTranslationZ((float) index);
+        }
+    }
+
+    /**
+     * Fills {@code mSlotTarget} with the x, y, scale and rotation of the card when it
+     * rests in the slot of the last layout pass.
+     */
+    private void computeSlotTarget(View childView, int slot) {
+        CardTransform transform = (CardTransform) childView.getTag(id.card_transform);
+        this.mSlotTarget[0] = (float) childView.getLeft() + this.mStackLayout.getX(slot);
+        this.mSlotTarget[1] = (float) this.getPaddingTop() + transform.getOffsetY() + this.mStackLayout.getY(slot);
+        this.mSlotTarget[2] = this.mStackLayout.getScale(slot) * transform.getScale();
+        this.mSlotTarget[3] = transform.getRotation() + this.mStackLayout.getRotation(slot);
+    }
+
+    /**
+     * Moves the cards below the dragged one part of the way to the slots they take once
+     * it is swiped, and binds the card that will appear at the bottom once
+     * {@code progress} reaches the predictive threshold.
+     *
+     * @param progress how close the drag is to swiping the card on release, from 0 to 1
+     */
+    void onDragProgress(float progress) {
+        if (this.mTopView == null || this.mIsFirstLayout) {
+            return;
+        }
+
+        if (!this.hasPredictedView() && progress >= this.mPredictiveThreshold) {
+            this.addPredictedView();
+        }
+
+        int first = this.mPredictedView != null ? 1 : 0;
+        int topViewIndex = this.getChildCount() - 1;
+        if (topViewIndex - first >= this.mStackLayout.getCardCount()) {
+            return;
+        }
+
+        for (int x = first; x < topViewIndex; ++x) {
+            View childView = this.getChildAt(x);
+            int slot = topViewIndex - x;
+            if (!this.mPredicting) {
+                this.mStackAnimator.remove(childView);
+                this.mLayerController.promote(childView);
             }
+
+            this.computeSlotTarget(childView, slot);
+            float fromX = this.mSlotTarget[0];
+            float fromY = this.mSlotTarget[1];
+            float fromScale = this.mSlotTarget[2];
+            float fromRotation = this.mSlotTarget[3];
+            this.computeSlotTarget(childView, slot - 1);
+            float scale = fromScale + (this.mSlotTarget[2] - fromScale) * progress;
+            childView.setX(fromX + (this.mSlotTarget[0] - fromX) * progress);
+            childView.setY(fromY + (this.mSlotTarget[1] - fromY) * progress);
+            childView.setScaleX(scale);
+            childView.setScaleY(scale);
+            childView.setRotation(fromRotation + (this.mSlotTarget[3] - fromRotation) * progress);
+        }
+
+        this.mPredicting = true;
+
+        if (this.mPredictedView != null) {
+            float alpha = this.mPredictiveThreshold < 1.0F
+                    ? (progress - this.mPredictiveThreshold) / (1.0F - this.mPredictiveThreshold)
+                    : 0.0F;
+            this.mPredictedView.setAlpha(Math.max(0.0F, Math.min(alpha, 1.0F)));
+        }
+    }
+
+    /**
+     * Sends the cards below the top card to the slots they take once it is gone, as
+     * soon as the swipe is decided rather than after its animation. Their slots are
+     * recorded, so the layout pass after the swipe has nothing left to do for them.
+     */
+    void advancePredictedCards() {
+        if (this.mTopView == null || this.mIsFirstLayout) {
+            return;
+        }
+
+        if (!this.hasPredictedView()) {
+            this.addPredictedView();
+        }
+
+        int topViewIndex = this.getChildCount() - 1;
+        this.mPredictedView = null;
+        this.mPredicting = false;
+        if (topViewIndex > this.mStackLayout.getCardCount()) {
+            return;
+        }
+
+        for (int x = 0; x < topViewIndex; ++x) {
+            View childView = this.getChildAt(x);
+            int slot = topViewIndex - 1 - x;
+            childView.setTag(id.stack_slot, Integer.valueOf(slot));
+            this.computeSlotTarget(childView, slot);
+            this.mStackAnimator.animateTo(childView, this.mSlotTarget[0], this.mSlotTarget[1], this.mSlotTarget[2], this.mSlotTarget[3]);
         }
 
+        this.mStackAnimator.start();
+        if (this.mMetrics != null) {
+            this.mMetrics.startFrameMonitor();
+        }
     }
 
-    private void removeTopView() {
+    /**
+     * Animates the cards below the top card back to their slots after a drag that did
+     * not swipe, and hands a predicted card back to the prefetcher.
+     */
+    void settlePredictedCards() {
+        if (!this.mPredicting) {
+            return;
+        }
+
+        this.mPredicting = false;
+        if (this.hasPredictedView()) {
+            View predictedView = this.mPredictedView;
+            this.mPredictedView = null;
+            this.mLayerController.demote(predictedView);
+            this.removeViewInLayout(predictedView);
+            --this.mCurrentViewIndex;
+            predictedView.setTag(id.new_view, Boolean.valueOf(true));
+            predictedView.setAlpha(1.0F);
+            this.mPrefetcher.putPrefetchedView(this.mCurrentViewIndex, predictedView);
+        }
+
+        int topViewIndex = this.getChildCount() - 1;
+        if (topViewIndex >= this.mStackLayout.getCardCount()) {
+            return;
+        }
+
+        for (int x = 0; x < topViewIndex; ++x) {
+            View childView = this.getChildAt(x);
+            this.computeSlotTarget(childView, topViewIndex - x);
+            this.mStackAnimator.animateTo(childView, this.mSlotTarget[0], this.mSlotTarget[1], this.mSlotTarget[2], this.mSlotTarget[3]);
+        }
+
+        this.mStackAnimator.start();
+    }
+
+    /**
+     * Whether the predicted card is still attached below the stack. It is forgotten
+     * if a rebind or relayout replaced it in the meantime.
+     */
+    private boolean hasPredictedView() {
+        if (this.mPredictedView != null && this.getChildAt(0) != this.mPredictedView) {
+            this.mPredictedView = null;
+        }
+
+        return this.mPredictedView != null;
+    }
+
+    /**
+     * Attaches the card that appears at the bottom once the top card is swiped,
+     * invisible and already in its slot, so that neither binding nor layout is left
+     * for the swipe.
+     */
+    private void addPredictedView() {
+        if (this.getChildCount() < this.mNumberOfStackedViews || this.mCurrentViewIndex >= this.mAdapter.getCount()
+                || this.getChildCount() - 1 >= this.mStackLayout.getCardCount()) {
+            return;
+        }
+
+        View view = this.mPrefetcher.takePrefetchedView(this.mCurrentViewIndex);
+        if (view == null) {
+            view = this.createCardView(this.mCurrentViewIndex);
+        }
+
+        view.setTag(id.new_view, Boolean.valueOf(false));
+        this.addViewInLayout(view, 0, view.getLayoutParams(), true);
+        ++this.mCurrentViewIndex;
+        this.layoutCardView(view, 0);
+        this.computeSlotTarget(view, this.getChildCount() - 2);
+        view.setX(this.mSlotTarget[0]);
+        view.setY(this.mSlotTarget[1]);
+        view.setScaleX(this.mSlotTarget[2]);
+        view.setScaleY(this.mSlotTarget[2]);
+        view.setRotation(this.mSlotTarget[3]);
+        view.setAlpha(0.0F);
+        this.mPredictedView = view;
+        this.mPrefetcher.schedule();
+    }
+
+    private static StackLayoutStrategy createLayoutStrategy(int stackLayout) {
+        switch (stackLayout) {
+            case STACK_LAYOUT_FAN:
+                return new StackLayoutStrategy.Fan();
+            case STACK_LAYOUT_CASCADE:
+                return new StackLayoutStrategy.Cascade();
+            case STACK_LAYOUT_PEEK:
+                return new StackLayoutStrategy.Peek();
+            default:
+                return new StackLayoutStrategy.Stack();
+        }
+    }
+
+    private void removeTopView(int direction) {
         if (this.mTopView != null) {
+            int position = this.getCurrentPosition();
             this.removeView(this.mTopView);
+            this.detachCardView(this.mTopView);
+            this.mSwipeHistory.push(this.mTopView, position, direction);
             this.mTopView = null;
         }
 
+        this.dispatchStackPositionChanged();
         if (this.getChildCount() == 0 && this.mListener != null) {
             this.mListener.onStackEmpty();
         }
 
+        if (this.mMetricsListener != null) {
+            this.mMetricsListener.onMetricsReported(this.mMetrics);
+        }
+
+    }
+
+    private void onItemRangeInserted(int positionStart, int itemCount) {
+        this.mPrefetcher.offset(positionStart, itemCount);
+        this.mSwipeHistory.offset(positionStart, itemCount);
+        this.mPreloader.offset(positionStart, itemCount);
+        if (positionStart < this.getCurrentPosition()) {
+            this.mCurrentViewIndex += itemCount;
+        } else if (positionStart < this.mCurrentViewIndex) {
+            this.detachCardsFrom(positionStart);
+            this.requestLayout();
+        } else if (this.getChildCount() < this.mNumberOfStackedViews) {
+            this.requestLayout();
+        } else {
+            this.mPrefetcher.schedule();
+            this.updatePreloadWindow();
+        }
+    }
+
+    private void onItemRangeRemoved(int positionStart, int itemCount) {
+        this.mPrefetcher.drop(positionStart, positionStart + itemCount);
+        this.mPrefetcher.offset(positionStart + itemCount, -itemCount);
+        this.mSwipeHistory.drop(positionStart, positionStart + itemCount);
+        this.mSwipeHistory.offset(positionStart + itemCount, -itemCount);
+        this.mPreloader.drop(positionStart, positionStart + itemCount);
+        this.mPreloader.offset(positionStart + itemCount, -itemCount);
+        int currentPosition = this.getCurrentPosition();
+        if (positionStart + itemCount <= currentPosition) {
+            this.mCurrentViewIndex -= itemCount;
+        } else if (positionStart < this.mCurrentViewIndex) {
+            int removedBeforeTop = Math.max(0, currentPosition - positionStart);
+            this.detachCardsFrom(Math.max(positionStart, currentPosition));
+            this.mCurrentViewIndex -= removedBeforeTop;
+            this.requestLayout();
+        } else {
+            this.mPrefetcher.schedule();
+            this.updatePreloadWindow();
+        }
+    }
+
+    private void onItemRangeChanged(int positionStart, int itemCount) {
+        int positionEnd = positionStart + itemCount;
+        this.mPrefetcher.drop(positionStart, positionEnd);
+        this.mSwipeHistory.drop(positionStart, positionEnd);
+        this.mPreloader.drop(positionStart, positionEnd);
+        this.updatePreloadWindow();
+        this.rebindAttachedCards(positionStart, positionEnd);
+        this.mPrefetcher.schedule();
+    }
+
+    /**
+     * Binds the attached cards in {@code [positionStart, positionEnd)} again, in place.
+     */
+    private void rebindAttachedCards(int positionStart, int positionEnd) {
+        int first = Math.max(positionStart, this.getCurrentPosition());
+        int last = Math.min(positionEnd, this.mCurrentViewIndex);
+
+        for (int position = first; position < last; ++position) {
+            int index = this.mCurrentViewIndex - 1 - position;
+            View childView = this.getChildAt(index);
+            int viewType = this.mAdapter.getItemViewType(position);
+            Object childViewType = childView.getTag(id.view_type);
+            boolean sameViewType = childViewType != null && ((Integer) childViewType).intValue() == viewType;
+            View convertView = sameViewType ? childView : this.mViewPool.getRecycledView(viewType);
+            View boundView = this.mAdapter.getView(position, convertView, this);
+            if (boundView == childView) {
+                this.measureCardView(childView);
+            } else {
+                this.mViewPool.onViewBound(convertView, boundView);
+                this.prepareCardView(boundView, viewType, position);
+                this.replaceCardView(index, childView, boundView);
+            }
+        }
+    }
+
+    private void updatePreloadWindow() {
+        if (this.mAdapter == null) {
+            return;
+        }
+
+        int currentPosition = this.getCurrentPosition();
+        int end = Math.min(currentPosition + this.mNumberOfStackedViews + this.mPreloadCount, this.mAdapter.getCount());
+        this.mPreloader.update(currentPosition - this.mSwipeHistory.size(), currentPosition, end);
+    }
+
+    private void updateBitmapPoolWindow() {
+        if (this.mBitmapPool != null) {
+            this.mBitmapPool.setWindow(this.mUndoHistorySize + this.mNumberOfStackedViews + this.mPreloadCount,
+                    this.getWidth() - (this.getPaddingLeft() + this.getPaddingRight()),
+                    this.getHeight() - (this.getPaddingTop() + this.getPaddingBottom()));
+        }
+    }
+
+    /**
+     * Binds the card whose image the {@link CardBitmapPool} just decoded again, if it
+     * is already attached or prefetched.
+     */
+    void onCardBitmapReady(long key) {
+        if (this.mAdapter == null) {
+            return;
+        }
+
+        int end = Math.min(this.mCurrentViewIndex + this.mPrefetchCount, this.mAdapter.getCount());
+
+        for (int position = Math.max(0, this.getCurrentPosition()); position < end; ++position) {
+            if (CardPreloader.getKey(this.mAdapter, position) != key) {
+                continue;
+            }
+
+            if (position < this.mCurrentViewIndex) {
+                this.rebindAttachedCards(position, position + 1);
+            } else {
+                this.mPrefetcher.drop(position, position + 1);
+                this.mPrefetcher.schedule();
+            }
+
+            return;
+        }
+    }
+
+    private void replaceCardView(int index, View oldView, View newView) {
+        if (oldView == this.mTopView) {
+            this.mSwipeHelper.unregisterObservedView();
+            this.mTopView = null;
+        }
+
+        newView.setTag(id.new_view, Boolean.valueOf(false));
+        newView.setY(oldView.getY());
+        newView.setRotation(oldView.getRotation());
+        newView.setScaleX(oldView.getScaleX());
+        newView.setScaleY(oldView.getScaleY());
+        newView.setAlpha(oldView.getAlpha());
+        this.removeViewInLayout(oldView);
+        this.recycleView(oldView);
+        this.addViewInLayout(newView, index, newView.getLayoutParams(), true);
+        this.requestLayout();
+    }
+
+    private void detachCardsFrom(int position) {
+        int count = Math.min(this.mCurrentViewIndex - position, this.getChildCount());
+
+        for (int x = count - 1; x >= 0; --x) {
+            View childView = this.getChildAt(x);
+            if (childView == this.mTopView) {
+                this.mSwipeHelper.unregisterObservedView();
+                this.mTopView = null;
+            }
+
+            this.removeViewInLayout(childView);
+            this.recycleView(childView);
+        }
+
+        this.mCurrentViewIndex -= count;
+    }
+
+    private void dispatchStackPositionChanged() {
+        if (this.mAdapter instanceof SwipeStackAdapter) {
+            int currentPosition = this.getCurrentPosition();
+            ((SwipeStackAdapter) this.mAdapter).onStackPositionChanged(currentPosition,
+                    Math.max(0, currentPosition - this.mUndoHistorySize));
+        }
+    }
+
+    void recycleView(View view) {
+        Object viewType = view.getTag(id.view_type);
+        if (viewType == null) {
+            return;
+        }
+
+        this.detachCardView(view);
+        view.setTranslationX(0.0F);
+        view.setTranslationY(0.0F);
+        view.setRotation(0.0F);
+        view.setScaleX(1.0F);
+        view.setScaleY(1.0F);
+        view.setAlpha(1.0F);
+        this.mViewPool.putRecycledView(((Integer) viewType).intValue(), view);
+    }
+
+    private void detachCardView(View view) {
+        this.mStackAnimator.remove(view);
+        this.mLayerController.onCardRecycled(view);
+        view.setTag(id.stack_slot, (Object) null);
+        this.mSwipeHelper.cancelAnimation(view);
+        view.setOnTouchListener(null);
+    }
+
+    private void recycleAllViews() {
+        this.mSwipeHelper.unregisterObservedView();
+        this.mTopView = null;
+
+        for (int x = this.getChildCount() - 1; x >= 0; --x) {
+            this.recycleView(this.getChildAt(x));
+        }
     }
 
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
@@ -244,56 +977,83 @@ public class SwipeStack extends ViewGroup {
     }
 
     public void onSwipeStart() {
-        if (this.mProgressListener != null) {
-            this.mProgressListener.onSwipeStart(this.getCurrentPosition());
+        this.mIsDragging = true;
+        this.mQueuedSwipeCount = 0;
+        if (this.mTopView != null) {
+            this.mStackAnimator.end(this.mTopView);
+            this.mLayerController.promote(this.mTopView);
         }
 
+        this.mProgressDispatcher.dispatchStart(this.getCurrentPosition());
+
     }
 
     public void onSwipeProgress(float progress) {
-        if (this.mProgressListener != null) {
-            this.mProgressListener.onSwipeProgress(this.getCurrentPosition(), progress);
-        }
+        this.mProgressDispatcher.dispatchProgress(this.getCurrentPosition(), progress);
 
     }
 
     public void onSwipeEnd() {
-        if (this.mProgressListener != null) {
-            this.mProgressListener.onSwipeEnd(this.getCurrentPosition());
-        }
+        this.mIsDragging = false;
+        this.mProgressDispatcher.dispatchEnd(this.getCurrentPosition());
 
     }
 
-    public void onViewSwipedToLeft() {
-        if (this.mListener != null) {
-            this.mListener.onViewSwipedToLeft(this.getCurrentPosition());
+    void onDragFrame(long eventTimeMillis) {
+        if (this.mMetrics != null) {
+            this.mMetrics.onDragFrame(eventTimeMillis);
         }
+    }
 
-        this.removeTopView();
+    void onSwipeReleased(long eventTimeMillis) {
+        if (this.mMetrics != null) {
+            this.mMetrics.onReleased(eventTimeMillis);
+        }
     }
 
-    public void onViewSwipedToRight() {
-        if (this.mListener != null) {
-            this.mListener.onViewSwipedToRight(this.getCurrentPosition());
+    void onSwipeReset() {
+        if (this.mMetrics != null) {
+            this.mMetrics.onReset();
         }
 
-        this.removeTopView();
+        if (!this.mIsDragging && this.mTopView != null) {
+            this.mLayerController.demote(this.mTopView);
+        }
     }
 
-    public void onViewSwipedToTop() {
-        if (this.mListener != null) {
-            this.mListener.onViewSwipedToTop(this.getCurrentPosition());
-        }
+    public void onViewSwipedToLeft() {
+        this.onViewSwiped(SWIPE_LEFT);
+    }
 
-        this.removeTopView();
+    public void onViewSwipedToRight() {
+        this.onViewSwiped(SWIPE_RIGHT);
+    }
+
+    public void onViewSwipedToTop() {
+        this.onViewSwiped(SWIPE_TOP);
     }
 
     public void onViewSwipedToBottom() {
+        this.onViewSwiped(SWIPE_BOTTOM);
+    }
+
+    void onViewSwiped(int direction) {
+        if (this.mMetrics != null) {
+            this.mMetrics.onSwiped();
+        }
+
         if (this.mListener != null) {
-            this.mListener.onViewSwipedToBottom(this.getCurrentPosition());
+            this.dispatchSwiped(this.getCurrentPosition(), direction);
         }
 
-        this.removeTopView();
+        this.removeTopView(direction);
+        if (this.mQueuedSwipeCount > 1) {
+            // All but the last queued card go at once and share the next layout pass,
+            // the last one is animated once that layout has brought up its card.
+            int count = this.mQueuedSwipeCount - 1;
+            this.mQueuedSwipeCount = 1;
+            this.swipeTopViews(count, this.mQueuedSwipeDirection);
+        }
     }
 
     public int getCurrentPosition() {
@@ -307,10 +1067,98 @@ public class SwipeStack extends ViewGroup {
     public void setAdapter(Adapter adapter) {
         if (this.mAdapter != null) {
             this.mAdapter.unregisterDataSetObserver(this.mDataObserver);
+            if (this.mAdapter instanceof SwipeStackAdapter) {
+                ((SwipeStackAdapter) this.mAdapter).unregisterItemObserver(this.mItemObserver);
+            }
         }
 
+        this.mPrefetcher.clear();
+        this.mSwipeHistory.clear();
+        this.mPreloader.reset();
+        this.mQueuedSwipeCount = 0;
         this.mAdapter = adapter;
         this.mAdapter.registerDataSetObserver(this.mDataObserver);
+        if (adapter instanceof SwipeStackAdapter) {
+            ((SwipeStackAdapter) adapter).registerItemObserver(this.mItemObserver);
+        }
+        if (this.mViewPool.isShared()) {
+            this.mViewPool.setViewTypeCount(Math.max(this.mViewPool.getViewTypeCount(), adapter.getViewTypeCount()));
+        } else {
+            this.mViewPool.clear();
+            this.mViewPool.setViewTypeCount(adapter.getViewTypeCount());
+        }
+    }
+
+    public RecycledViewPool getRecycledViewPool() {
+        return this.mViewPool;
+    }
+
+    /**
+     * Takes recycled cards from, and recycles them into, a pool that other stacks on
+     * the same screen can share, so that cards inflated for one deck are reused by the
+     * others. Pass {@code null} to go back to a pool of this stack's own.
+     */
+    public void setRecycledViewPool(@Nullable RecycledViewPool pool) {
+        if (pool == this.mViewPool) {
+            return;
+        }
+
+        boolean attached = this.mViewPoolAttached;
+        this.detachViewPool();
+        this.mViewPool = pool != null ? pool : new RecycledViewPool();
+        if (attached) {
+            this.attachViewPool();
+        }
+
+        if (this.mAdapter != null) {
+            this.mViewPool.setViewTypeCount(Math.max(this.mViewPool.getViewTypeCount(), this.mAdapter.getViewTypeCount()));
+        }
+
+        this.updateViewPoolSize();
+    }
+
+    public PrefetchScheduler getPrefetchScheduler() {
+        return this.mPrefetcher.getScheduler();
+    }
+
+    /**
+     * Binds this stack's upcoming cards through a scheduler shared with other stacks,
+     * so that they split one time budget per frame, most visible stack first. Pass
+     * {@code null} to go back to a scheduler of this stack's own.
+     */
+    public void setPrefetchScheduler(@Nullable PrefetchScheduler scheduler) {
+        this.mPrefetcher.setScheduler(scheduler != null ? scheduler : new PrefetchScheduler());
+        if (this.isAttachedToWindow()) {
+            this.mPrefetcher.onAttachedToWindow();
+        }
+
+        this.mPrefetcher.schedule();
+    }
+
+    /**
+     * Counts this stack as a user of its pool. A stack counts from its creation until
+     * it leaves the window, and again once it is attached, so a pool stops being
+     * shared when the other stacks go away.
+     */
+    private void attachViewPool() {
+        if (!this.mViewPoolAttached) {
+            this.mViewPoolAttached = true;
+            this.mViewPool.attach();
+        }
+    }
+
+    private void detachViewPool() {
+        if (this.mViewPoolAttached) {
+            this.mViewPoolAttached = false;
+            this.mViewPool.detach();
+        }
+    }
+
+    private void updateViewPoolSize() {
+        int maxRecycledViews = this.mNumberOfStackedViews + this.mPrefetchCount;
+        this.mViewPool.setMaxRecycledViews(this.mViewPool.isShared()
+                ? Math.max(this.mViewPool.getMaxRecycledViews(), maxRecycledViews)
+                : maxRecycledViews);
     }
 
     public int getAllowedSwipeDirections() {
@@ -319,6 +1167,65 @@ public class SwipeStack extends ViewGroup {
 
     public void setAllowedSwipeDirections(int directions) {
         this.mAllowedSwipeDirections = directions;
+        this.mSwipeDirectionFlags = toSwipeDirectionFlags(directions);
+    }
+
+    public int getAllowedSwipeDirectionFlags() {
+        return this.mSwipeDirectionFlags;
+    }
+
+    /**
+     * Sets the directions a card may be swiped to, as a combination of the
+     * {@code SWIPE_} flags, for example {@code SWIPE_LEFT | SWIPE_RIGHT} or {@link #SWIPE_ALL}.
+     */
+    public void setAllowedSwipeDirectionFlags(int flags) {
+        this.mSwipeDirectionFlags = flags;
+    }
+
+    /**
+     * Sets how far a card must be dragged to be swiped when it is released without a
+     * fling, as a fraction of the stack's width and height. Defaults to a sixth.
+     */
+    public void setSwipeThreshold(float threshold) {
+        this.mSwipeThreshold = threshold;
+        this.mSwipeHelper.setSwipeThreshold(threshold);
+    }
+
+    /**
+     * Maps the legacy {@code SWIPE_DIRECTION_} values onto flags. Each of them has
+     * always excluded a single straight direction rather than allowing only one:
+     * {@code ONLY_LEFT} and {@code ONLY_RIGHT} exclude the opposite side, while
+     * {@code ONLY_TOP} and {@code ONLY_BOTTOM} exclude their own.
+     */
+    private static int toSwipeDirectionFlags(int allowedSwipeDirections) {
+        switch (allowedSwipeDirections) {
+            case SWIPE_DIRECTION_ONLY_LEFT:
+                return SWIPE_STRAIGHT & ~SWIPE_RIGHT;
+            case SWIPE_DIRECTION_ONLY_RIGHT:
+                return SWIPE_STRAIGHT & ~SWIPE_LEFT;
+            case SWIPE_DIRECTION_ONLY_TOP:
+                return SWIPE_STRAIGHT & ~SWIPE_TOP;
+            case SWIPE_DIRECTION_ONLY_BOTTOM:
+                return SWIPE_STRAIGHT & ~SWIPE_BOTTOM;
+            default:
+                return SWIPE_STRAIGHT;
+        }
+    }
+
+    /**
+     * Returns -1, 0 or 1 for the horizontal component of a swipe direction.
+     */
+    static int getDirectionX(int direction) {
+        return (direction & (SWIPE_RIGHT | SWIPE_TOP_RIGHT | SWIPE_BOTTOM_RIGHT)) != 0 ? 1
+                : (direction & (SWIPE_LEFT | SWIPE_TOP_LEFT | SWIPE_BOTTOM_LEFT)) != 0 ? -1 : 0;
+    }
+
+    /**
+     * Returns -1, 0 or 1 for the vertical component of a swipe direction.
+     */
+    static int getDirectionY(int direction) {
+        return (direction & (SWIPE_BOTTOM | SWIPE_BOTTOM_LEFT | SWIPE_BOTTOM_RIGHT)) != 0 ? 1
+                : (direction & (SWIPE_TOP | SWIPE_TOP_LEFT | SWIPE_TOP_RIGHT)) != 0 ? -1 : 0;
     }
 
     public void setListener(@Nullable SwipeStack.SwipeStackListener listener) {
@@ -326,7 +1233,51 @@ public class SwipeStack extends ViewGroup {
     }
 
     public void setSwipeProgressListener(@Nullable SwipeStack.SwipeProgressListener listener) {
-        this.mProgressListener = listener;
+        this.setSwipeProgressListener(listener, (Executor) null);
+    }
+
+    public void setSwipeProgressListener(@Nullable SwipeStack.SwipeProgressListener listener, @Nullable Executor executor) {
+        this.mProgressDispatcher.setListener(listener, executor);
+        this.mProgressDispatchMode = this.mProgressDispatcher.getMode();
+    }
+
+    public int getProgressDispatchMode() {
+        return this.mProgressDispatchMode;
+    }
+
+    public void setProgressDispatchMode(int mode) {
+        this.mProgressDispatcher.setMode(mode);
+        this.mProgressDispatchMode = mode;
+    }
+
+    public void setProgressDispatchInterval(int intervalMillis) {
+        this.mProgressDispatcher.setMinInterval(intervalMillis);
+    }
+
+    /**
+     * Starts collecting {@link SwipeStackMetrics} and reports them after every swiped card.
+     * Pass {@code null} to stop collecting.
+     */
+    public void setMetricsListener(@Nullable SwipeStack.MetricsListener listener) {
+        this.mMetricsListener = listener;
+        if (listener == null) {
+            if (this.mMetrics != null) {
+                this.mMetrics.stop();
+                this.mMetrics = null;
+            }
+        } else if (this.mMetrics == null) {
+            this.mMetrics = new SwipeStackMetrics(this);
+            this.mMetrics.onAttachedToWindow();
+        }
+    }
+
+    @Nullable
+    public SwipeStackMetrics getMetrics() {
+        return this.mMetrics;
+    }
+
+    boolean isStackAnimating() {
+        return this.mStackAnimator.isRunning();
     }
 
     public View getTopView() {
@@ -335,32 +1286,505 @@ public class SwipeStack extends ViewGroup {
 
     public void swipeTopViewToRight() {
         if (this.getChildCount() != 0) {
+            this.mLayerController.promote(this.mTopView);
+            this.onSwipeReleased(SystemClock.uptimeMillis());
             this.mSwipeHelper.swipeViewToRight();
         }
     }
 
     public void swipeTopViewToLeft() {
         if (this.getChildCount() != 0) {
+            this.mLayerController.promote(this.mTopView);
+            this.onSwipeReleased(SystemClock.uptimeMillis());
             this.mSwipeHelper.swipeViewToLeft();
         }
     }
 
     public void swipeTopViewToTop() {
         if (this.getChildCount() != 0) {
+            this.mLayerController.promote(this.mTopView);
+            this.onSwipeReleased(SystemClock.uptimeMillis());
             this.mSwipeHelper.swipeViewToTop();
         }
     }
 
     public void swipeTopViewToBottom() {
         if (this.getChildCount() != 0) {
+            this.mLayerController.promote(this.mTopView);
+            this.onSwipeReleased(SystemClock.uptimeMillis());
             this.mSwipeHelper.swipeViewToBottom();
         }
     }
 
+    /**
+     * Swipes the top card to one of the {@code SWIPE_} directions, including the diagonals.
+     */
+    public void swipeTopView(int direction) {
+        if (this.getChildCount() != 0) {
+            this.mLayerController.promote(this.mTopView);
+            this.onSwipeReleased(SystemClock.uptimeMillis());
+            this.mSwipeHelper.swipeViewTo(direction);
+        }
+    }
+
+    /**
+     * Dismisses the top {@code count} cards at once, as if each was swiped in the given
+     * direction. Only the cards that end up visible are bound, and the stack settles
+     * in one transition. A {@link SwipeStack.BatchSwipeListener} is told about the
+     * batch in a single callback; other listeners get one callback per card, in order.
+     *
+     * @param direction one of the {@code SWIPE_} directions, such as {@link #SWIPE_LEFT}
+     */
+    public void swipeTopViews(int count, int direction) {
+        if (this.mAdapter == null || count <= 0) {
+            return;
+        }
+
+        int firstPosition = this.getCurrentPosition();
+        count = Math.min(count, this.mAdapter.getCount() - firstPosition);
+        if (count <= 0) {
+            return;
+        }
+
+        this.mSwipeHistory.clear();
+        this.advanceTo(firstPosition + count);
+        if (this.mListener instanceof SwipeStack.BatchSwipeListener) {
+            ((SwipeStack.BatchSwipeListener) this.mListener).onViewsSwiped(firstPosition, count, direction);
+        } else if (this.mListener != null) {
+            for (int position = firstPosition; position < firstPosition + count; ++position) {
+                this.dispatchSwiped(position, direction);
+            }
+        }
+
+        // The adapter may drop the swiped items here, so compare the positions after it.
+        this.dispatchStackPositionChanged();
+        if (this.getCurrentPosition() >= this.mAdapter.getCount() && this.mListener != null) {
+            this.mListener.onStackEmpty();
+        }
+    }
+
+    /**
+     * Swipes the top card like {@link #swipeTopView(int)}, or queues the swipe while a
+     * card is still leaving or the next one is not laid out yet. Swipes queued this way
+     * do not overlap: once the leaving card is gone, all but the last queued card are
+     * dismissed like {@link #swipeTopViews(int, int)} and the last one is animated.
+     * A swipe in another direction redirects the queued ones.
+     *
+     * @return whether the swipe was started or queued
+     */
+    private boolean queueSwipe(int direction) {
+        if (this.mAdapter == null || !this.isEnabled() || this.mIsDragging
+                || (this.mSwipeDirectionFlags & direction) == 0) {
+            return false;
+        }
+
+        boolean leaving = this.mTopView != null && !this.mSwipeHelper.isListening();
+        int remaining = this.mAdapter.getCount() - this.getCurrentPosition() - (leaving ? 1 : 0) - this.mQueuedSwipeCount;
+        if (remaining <= 0) {
+            return false;
+        }
+
+        if (this.mTopView != null && !leaving && this.mQueuedSwipeCount == 0) {
+            this.swipeTopView(direction);
+        } else {
+            this.mQueuedSwipeDirection = direction;
+            ++this.mQueuedSwipeCount;
+        }
+
+        return true;
+    }
+
+    private void startQueuedSwipe() {
+        if (this.mTopView == null || !this.mSwipeHelper.isListening() || this.mIsDragging) {
+            return;
+        }
+
+        --this.mQueuedSwipeCount;
+        this.swipeTopView(this.mQueuedSwipeDirection);
+    }
+
+    /**
+     * Swipes the top card with the D-pad or arrow keys, in the directions the stack
+     * allows. A held key keeps queueing swipes.
+     */
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+        int direction = getKeyDirection(keyCode);
+        if (direction != 0 && this.queueSwipe(direction)) {
+            return true;
+        }
+
+        return super.onKeyDown(keyCode, event);
+    }
+
+    private static int getKeyDirection(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.KEYCODE_DPAD_LEFT:
+                return SWIPE_LEFT;
+            case KeyEvent.KEYCODE_DPAD_RIGHT:
+                return SWIPE_RIGHT;
+            case KeyEvent.KEYCODE_DPAD_UP:
+                return SWIPE_TOP;
+            case KeyEvent.KEYCODE_DPAD_DOWN:
+                return SWIPE_BOTTOM;
+            default:
+                return 0;
+        }
+    }
+
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        if (this.mAdapter != null && this.getCurrentPosition() < this.mAdapter.getCount()) {
+            this.addSwipeAction(info, SWIPE_LEFT, id.swipe_stack_action_swipe_left, string.swipe_stack_action_swipe_left);
+            this.addSwipeAction(info, SWIPE_RIGHT, id.swipe_stack_action_swipe_right, string.swipe_stack_action_swipe_right);
+            this.addSwipeAction(info, SWIPE_TOP, id.swipe_stack_action_swipe_top, string.swipe_stack_action_swipe_top);
+            this.addSwipeAction(info, SWIPE_BOTTOM, id.swipe_stack_action_swipe_bottom, string.swipe_stack_action_swipe_bottom);
+        }
+
+        if (this.getUndoCount() > 0) {
+            info.addAction(new AccessibilityAction(id.swipe_stack_action_undo,
+                    this.getResources().getString(string.swipe_stack_action_undo)));
+        }
+    }
+
+    private void addSwipeAction(AccessibilityNodeInfo info, int direction, int actionId, int labelId) {
+        if ((this.mSwipeDirectionFlags & direction) != 0) {
+            info.addAction(new AccessibilityAction(actionId, this.getResources().getString(labelId)));
+        }
+    }
+
+    public boolean performAccessibilityAction(int action, Bundle arguments) {
+        if (action == id.swipe_stack_action_swipe_left) {
+            return this.queueSwipe(SWIPE_LEFT);
+        } else if (action == id.swipe_stack_action_swipe_right) {
+            return this.queueSwipe(SWIPE_RIGHT);
+        } else if (action == id.swipe_stack_action_swipe_top) {
+            return this.queueSwipe(SWIPE_TOP);
+        } else if (action == id.swipe_stack_action_swipe_bottom) {
+            return this.queueSwipe(SWIPE_BOTTOM);
+        } else if (action == id.swipe_stack_action_undo) {
+            return this.undo();
+        }
+
+        return super.performAccessibilityAction(action, arguments);
+    }
+
+    /**
+     * Shows the card at the given position on top without reporting the cards in
+     * between as swiped. Moving forward keeps the cards that stay visible.
+     */
+    public void jumpToPosition(int position) {
+        if (this.mAdapter == null) {
+            return;
+        }
+
+        position = Math.max(0, Math.min(position, this.mAdapter.getCount()));
+        if (position == this.getCurrentPosition()) {
+            return;
+        }
+
+        this.mSwipeHistory.clear();
+        this.mQueuedSwipeCount = 0;
+        if (position > this.getCurrentPosition()) {
+            this.advanceTo(position);
+        } else {
+            this.mPrefetcher.clear();
+            this.recycleAllViews();
+            this.removeAllViewsInLayout();
+            this.mCurrentViewIndex = position;
+            this.requestLayout();
+        }
+
+        this.dispatchStackPositionChanged();
+    }
+
+    private void advanceTo(int position) {
+        int removeCount = Math.min(position - this.getCurrentPosition(), this.getChildCount());
+        if (removeCount > 0) {
+            this.mSwipeHelper.unregisterObservedView();
+            this.mTopView = null;
+        }
+
+        for (int x = this.getChildCount() - 1; removeCount > 0; --x, --removeCount) {
+            View childView = this.getChildAt(x);
+            this.removeViewInLayout(childView);
+            this.recycleView(childView);
+        }
+
+        if (position > this.mCurrentViewIndex) {
+            this.mPrefetcher.drop(this.mCurrentViewIndex, position);
+            this.mCurrentViewIndex = position;
+        }
+
+        this.requestLayout();
+    }
+
+    private void dispatchSwiped(int position, int direction) {
+        if (this.mListener instanceof SwipeStack.DirectionalSwipeListener) {
+            ((SwipeStack.DirectionalSwipeListener) this.mListener).onViewSwiped(position, direction);
+            return;
+        }
+
+        // Diagonal swipes are reported by their horizontal side.
+        int directionX = getDirectionX(direction);
+        if (directionX < 0) {
+            this.mListener.onViewSwipedToLeft(position);
+        } else if (directionX > 0) {
+            this.mListener.onViewSwipedToRight(position);
+        } else if (direction == SWIPE_TOP) {
+            this.mListener.onViewSwipedToTop(position);
+        } else {
+            this.mListener.onViewSwipedToBottom(position);
+        }
+    }
+
+    /**
+     * Brings back the last swiped card, animating it in from the side it left.
+     *
+     * @return whether a card was restored
+     */
+    public boolean undo() {
+        return this.undo(1) == 1;
+    }
+
+    /**
+     * Brings back up to {@code count} of the last swiped cards. Cards are restored from
+     * the undo history without being inflated or bound again.
+     *
+     * @return the number of cards restored
+     */
+    public int undo(int count) {
+        int restored = 0;
+
+        while (restored < count && this.restoreLastSwipedView()) {
+            ++restored;
+        }
+
+        if (restored > 0) {
+            this.requestLayout();
+            this.dispatchStackPositionChanged();
+        }
+
+        return restored;
+    }
+
+    public int getUndoCount() {
+        return this.mSwipeHistory.size();
+    }
+
+    public int getUndoHistorySize() {
+        return this.mUndoHistorySize;
+    }
+
+    public void setUndoHistorySize(int undoHistorySize) {
+        this.mUndoHistorySize = undoHistorySize;
+        this.mSwipeHistory.setMaxSize(undoHistorySize);
+        this.updateBitmapPoolWindow();
+        this.updatePreloadWindow();
+    }
+
+    public void clearUndoHistory() {
+        this.mSwipeHistory.clear();
+    }
+
+    /**
+     * Releases the views kept by the undo history when memory runs low; undo keeps
+     * working and binds those cards again. Hiding the UI alone is no memory pressure,
+     * so {@link ComponentCallbacks2#TRIM_MEMORY_UI_HIDDEN} keeps them. Registered with
+     * the application context while attached, and can also be forwarded from
+     * {@link android.content.ComponentCallbacks2#onTrimMemory(int)}.
+     */
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW && level != ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            this.mSwipeHistory.recycleViews();
+        }
+
+        if (this.mBitmapPool != null) {
+            this.mBitmapPool.trimMemory(level);
+        }
+    }
+
+    private boolean restoreLastSwipedView() {
+        if (this.mAdapter == null || this.mSwipeHistory.size() == 0 || this.mIsDragging) {
+            return false;
+        }
+
+        // The top card is already leaving, restoring above it would hand it its callback.
+        if (this.mTopView != null && !this.mSwipeHelper.isListening()) {
+            return false;
+        }
+
+        if (this.mSwipeHistory.peekPosition() != this.getCurrentPosition() - 1
+                || this.mSwipeHistory.peekPosition() >= this.mAdapter.getCount()) {
+            this.mSwipeHistory.clear();
+            return false;
+        }
+
+        int direction = this.mSwipeHistory.peekDirection();
+        View view = this.mSwipeHistory.pop();
+        if (view == null) {
+            view = this.createRestoredView(this.getCurrentPosition() - 1, direction);
+        }
+
+        if (this.getChildCount() >= this.mNumberOfStackedViews) {
+            View bottomView = this.getChildAt(0);
+            this.removeViewInLayout(bottomView);
+            this.recycleView(bottomView);
+            --this.mCurrentViewIndex;
+        }
+
+        this.mLayerController.onCardPrepared(view);
+        this.addViewInLayout(view, this.getChildCount(), view.getLayoutParams(), true);
+        return true;
+    }
+
+    /**
+     * Binds a card for an undo entry without a view, restored from a saved state or
+     * trimmed by {@link #onTrimMemory(int)}, placed
+     * outside the stack on the side it was swiped to.
+     */
+    private View createRestoredView(int position, int direction) {
+        View view = this.createCardView(position);
+        view.setTag(id.new_view, Boolean.valueOf(false));
+        view.setAlpha(0.0F);
+        view.setTranslationX((float) (getDirectionX(direction) * this.getWidth()));
+        view.setTranslationY((float) (getDirectionY(direction) * this.getHeight()));
+        return view;
+    }
+
+    public StackLayoutStrategy getStackLayoutStrategy() {
+        return this.mLayoutStrategy;
+    }
+
+    /**
+     * Changes where the cards rest, for example to one of the built-in
+     * {@link StackLayoutStrategy.Fan}, {@link StackLayoutStrategy.Cascade} or
+     * {@link StackLayoutStrategy.Peek} layouts. The cards animate to their new places.
+     */
+    public void setStackLayoutStrategy(StackLayoutStrategy strategy) {
+        this.mLayoutStrategy = strategy;
+        this.mLaidOutCardCount = -1;
+        this.requestLayout();
+    }
+
+    public SwipeStack.CardTransformProvider getCardTransformProvider() {
+        return this.mTransformProvider;
+    }
+
+    /**
+     * Sets how cards are tilted, offset and scaled at rest. Cards already in the stack
+     * keep their transform. The default tilts cards by up to {@code stack_rotation}
+     * degrees, seeded per position.
+     */
+    public void setCardTransformProvider(SwipeStack.CardTransformProvider provider) {
+        this.mTransformProvider = provider;
+    }
+
+    public void setFlingVelocity(int velocity) {
+        this.mFlingVelocity = velocity;
+        this.mSwipeHelper.setFlingVelocity((float) velocity);
+    }
+
+    public void setMinFlingDistance(int distance) {
+        this.mMinFlingDistance = distance;
+        this.mSwipeHelper.setMinFlingDistance((float) distance);
+    }
+
+    public int getPrefetchCount() {
+        return this.mPrefetchCount;
+    }
+
+    public void setPrefetchCount(int prefetchCount) {
+        this.mPrefetchCount = prefetchCount;
+        this.mPrefetcher.setPrefetchCount(prefetchCount);
+        this.updateViewPoolSize();
+    }
+
+    public int getPreloadCount() {
+        return this.mPreloadCount;
+    }
+
+    /**
+     * Sets how many positions past the stacked cards are announced to the
+     * {@link SwipeStack.PreloadListener} and decoded by the {@link CardBitmapPool}.
+     */
+    public void setPreloadCount(int preloadCount) {
+        this.mPreloadCount = preloadCount;
+        this.updateBitmapPoolWindow();
+        this.updatePreloadWindow();
+    }
+
+    public void setPreloadListener(@Nullable SwipeStack.PreloadListener listener) {
+        this.mPreloader.setListener(listener);
+        this.updatePreloadWindow();
+    }
+
+    public CardBitmapPool getCardBitmapPool() {
+        return this.mBitmapPool;
+    }
+
+    /**
+     * Decodes the images of the cards in the preload window ahead of time. A pool
+     * serves a single stack.
+     */
+    public void setCardBitmapPool(@Nullable CardBitmapPool bitmapPool) {
+        this.mPreloader.setBitmapPool(bitmapPool);
+        if (this.mBitmapPool != null) {
+            this.mBitmapPool.detach();
+        }
+
+        this.mBitmapPool = bitmapPool;
+        if (bitmapPool != null) {
+            bitmapPool.attach(this);
+            this.updateBitmapPoolWindow();
+        }
+
+        this.updatePreloadWindow();
+    }
+
+    public float getPredictiveThreshold() {
+        return this.mPredictiveThreshold;
+    }
+
+    /**
+     * Sets how far a card must be dragged, as a fraction of the distance that swipes it
+     * on release, before the card that will appear below the stack is bound and
+     * attached. Values above 1 bind it only when the swipe is decided.
+     */
+    public void setPredictiveThreshold(float threshold) {
+        this.mPredictiveThreshold = threshold;
+    }
+
+    public int getLayerMode() {
+        return this.mLayerMode;
+    }
+
+    public void setLayerMode(int layerMode) {
+        this.mLayerMode = layerMode;
+        this.mLayerController.setMode(layerMode);
+        if (layerMode == LAYER_MODE_ALWAYS) {
+            for (int x = 0; x < this.getChildCount(); ++x) {
+                this.mLayerController.onCardPrepared(this.getChildAt(x));
+            }
+        }
+    }
+
+    public int getHardwareLayerCount() {
+        return this.mLayerController.getLayerCount();
+    }
+
+    public long getHardwareLayerMemory() {
+        return this.mLayerController.getLayerMemoryBytes();
+    }
+
     public void resetStack() {
         this.mCurrentViewIndex = 0;
+        this.mPrefetcher.clear();
+        this.mSwipeHistory.clear();
+        this.mPreloader.reset();
+        this.recycleAllViews();
         this.removeAllViewsInLayout();
         this.requestLayout();
+        this.dispatchStackPositionChanged();
     }
 
     public interface SwipeProgressListener {
@@ -371,6 +1795,53 @@ public class SwipeStack extends ViewGroup {
         void onSwipeEnd(int var1);
     }
 
+    public interface CoalescedSwipeProgressListener extends SwipeStack.SwipeProgressListener {
+        void onSwipeProgress(int position, float progress, int droppedCount);
+    }
+
+    public interface CardTransformProvider {
+        /**
+         * Fills in the resting transform of the card at the adapter position. Must return
+         * the same transform for the same position, since it may be called again on rebind.
+         */
+        void getTransform(int position, CardTransform transform);
+    }
+
+    public interface BatchSwipeListener extends SwipeStack.SwipeStackListener {
+        /**
+         * Called once for {@link SwipeStack#swipeTopViews(int, int)} instead of one
+         * callback per card.
+         */
+        void onViewsSwiped(int firstPosition, int count, int direction);
+    }
+
+    public interface DirectionalSwipeListener extends SwipeStack.SwipeStackListener {
+        /**
+         * Called instead of the per-side callbacks for every swiped card, with one of
+         * the {@code SWIPE_} directions, including the diagonals.
+         */
+        void onViewSwiped(int position, int direction);
+    }
+
+    public interface PreloadListener {
+        /**
+         * Called for every position that is about to be shown, nearest to the top card
+         * first, and then for the swiped positions undo can still bring back. Called
+         * again for a position whose item changed.
+         */
+        void onPreload(int position);
+
+        /**
+         * Called once a preloaded position has left the window, for example because it
+         * was swiped and dropped out of the undo history, so its data can be released.
+         */
+        void onRelease(int position);
+    }
+
+    public interface MetricsListener {
+        void onMetricsReported(SwipeStackMetrics metrics);
+    }
+
     public interface SwipeStackListener {
         void onViewSwipedToLeft(int var1);
 
@@ -0,0 +1,100 @@
+package yoosanghyeon.customswipestack;
+
+import android.widget.BaseAdapter;
+
+import java.util.ArrayList;
+
+/**
+ * A {@link BaseAdapter} that can describe what changed, so that a {@link SwipeStack}
+ * only touches the attached cards that are affected instead of relaying out the
+ * whole stack on {@link #notifyDataSetChanged()}.
+ */
+public abstract class SwipeStackAdapter extends BaseAdapter {
+    private final ArrayList<SwipeStackAdapter.ItemObserver> mItemObservers = new ArrayList<>();
+
+    public void registerItemObserver(SwipeStackAdapter.ItemObserver observer) {
+        if (!this.mItemObservers.contains(observer)) {
+            this.mItemObservers.add(observer);
+        }
+    }
+
+    public void unregisterItemObserver(SwipeStackAdapter.ItemObserver observer) {
+        this.mItemObservers.remove(observer);
+    }
+
+    public final void notifyItemInserted(int position) {
+        this.notifyItemRangeInserted(position, 1);
+    }
+
+    public void notifyItemRangeInserted(int positionStart, int itemCount) {
+        if (this.mItemObservers.isEmpty()) {
+            super.notifyDataSetChanged();
+            return;
+        }
+
+        for (int i = this.mItemObservers.size() - 1; i >= 0; --i) {
+            this.mItemObservers.get(i).onItemRangeInserted(positionStart, itemCount);
+        }
+    }
+
+    public final void notifyItemRemoved(int position) {
+        this.notifyItemRangeRemoved(position, 1);
+    }
+
+    public void notifyItemRangeRemoved(int positionStart, int itemCount) {
+        if (this.mItemObservers.isEmpty()) {
+            super.notifyDataSetChanged();
+            return;
+        }
+
+        for (int i = this.mItemObservers.size() - 1; i >= 0; --i) {
+            this.mItemObservers.get(i).onItemRangeRemoved(positionStart, itemCount);
+        }
+    }
+
+    public final void notifyItemChanged(int position) {
+        this.notifyItemRangeChanged(position, 1);
+    }
+
+    public void notifyItemRangeChanged(int positionStart, int itemCount) {
+        this.dispatchItemRangeChanged(positionStart, itemCount);
+    }
+
+    /**
+     * Tells the observers that items changed, without giving subclasses the chance to
+     * react as they do in {@link #notifyItemRangeChanged(int, int)}.
+     */
+    final void dispatchItemRangeChanged(int positionStart, int itemCount) {
+        if (this.mItemObservers.isEmpty()) {
+            super.notifyDataSetChanged();
+            return;
+        }
+
+        for (int i = this.mItemObservers.size() - 1; i >= 0; --i) {
+            this.mItemObservers.get(i).onItemRangeChanged(positionStart, itemCount);
+        }
+    }
+
+    /**
+     * Called by the {@link SwipeStack} whenever its top card changes.
+     */
+    public void onStackPositionChanged(int currentPosition) {
+    }
+
+    /**
+     * Called by the {@link SwipeStack} whenever its top card changes, together with
+     * the oldest position its undo history may bring back. Forwards to
+     * {@link #onStackPositionChanged(int)} unless overridden.
+     */
+    public void onStackPositionChanged(int currentPosition, int firstUndoPosition) {
+        this.onStackPositionChanged(currentPosition);
+    }
+
+    public interface ItemObserver {
+        void onItemRangeInserted(int positionStart, int itemCount);
+
+        void onItemRangeRemoved(int positionStart, int itemCount);
+
+        void onItemRangeChanged(int positionStart, int itemCount);
+    }
+}
@@ -0,0 +1,148 @@
+package yoosanghyeon.customswipestack;
+
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.Display;
+
+import java.util.concurrent.TimeUnit;
+
+import yoosanghyeon.customswipestack.util.LatencyHistogram;
+
+/**
+ * Timing collected by a {@link SwipeStack} while a {@link SwipeStack.MetricsListener}
+ * is registered. Values accumulate until {@link #reset()} is called.
+ */
+public class SwipeStackMetrics implements Choreographer.FrameCallback {
+    /** From a MOVE event to the frame that moved the card. */
+    public static final int METRIC_TOUCH_LATENCY = 0;
+    /** From releasing or programmatically swiping a card to its swiped callback. */
+    public static final int METRIC_RELEASE_TO_SWIPED = 1;
+    /** Time spent in {@code Adapter.getView()}. */
+    public static final int METRIC_BIND = 2;
+    /** Time spent in {@code SwipeStack.onLayout()}. */
+    public static final int METRIC_LAYOUT = 3;
+
+    private static final int METRIC_COUNT = 4;
+    private static final float FALLBACK_REFRESH_RATE = 60.0F;
+
+    private final SwipeStack mSwipeStack;
+    private final LatencyHistogram[] mHistograms;
+    private long mFrameIntervalNanos;
+    private long mReleaseTimeMillis;
+    private long mLastFrameTimeNanos;
+    private boolean mMonitoringFrames;
+    private long mAnimationFrameCount;
+    private long mDroppedFrameCount;
+
+    SwipeStackMetrics(SwipeStack swipeStack) {
+        this.mSwipeStack = swipeStack;
+        this.mHistograms = new LatencyHistogram[METRIC_COUNT];
+
+        for (int i = 0; i < METRIC_COUNT; ++i) {
+            this.mHistograms[i] = new LatencyHistogram();
+        }
+
+        this.mReleaseTimeMillis = -1L;
+        this.mFrameIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1L) / FALLBACK_REFRESH_RATE);
+    }
+
+    public LatencyHistogram getHistogram(int metric) {
+        return this.mHistograms[metric];
+    }
+
+    /**
+     * Number of frames rendered while the stack was animating a swipe or reorder.
+     */
+    public long getAnimationFrameCount() {
+        return this.mAnimationFrameCount;
+    }
+
+    /**
+     * Number of vsyncs missed while the stack was animating a swipe or reorder.
+     */
+    public long getDroppedFrameCount() {
+        return this.mDroppedFrameCount;
+    }
+
+    public void reset() {
+        for (int i = 0; i < METRIC_COUNT; ++i) {
+            this.mHistograms[i].reset();
+        }
+
+        this.mAnimationFrameCount = 0L;
+        this.mDroppedFrameCount = 0L;
+    }
+
+    void onAttachedToWindow() {
+        Display display = this.mSwipeStack.getDisplay();
+        float refreshRate = display != null ? display.getRefreshRate() : FALLBACK_REFRESH_RATE;
+        if (refreshRate < 30.0F) {
+            refreshRate = FALLBACK_REFRESH_RATE;
+        }
+
+        this.mFrameIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1L) / refreshRate);
+    }
+
+    void stop() {
+        if (this.mMonitoringFrames) {
+            this.mMonitoringFrames = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        this.mReleaseTimeMillis = -1L;
+    }
+
+    void recordDuration(int metric, long nanos) {
+        this.mHistograms[metric].record(nanos);
+    }
+
+    void onDragFrame(long eventTimeMillis) {
+        this.mHistograms[METRIC_TOUCH_LATENCY].record(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(eventTimeMillis));
+    }
+
+    void onReleased(long eventTimeMillis) {
+        this.mReleaseTimeMillis = eventTimeMillis;
+        this.startFrameMonitor();
+    }
+
+    void onSwiped() {
+        if (this.mReleaseTimeMillis >= 0L) {
+            this.mHistograms[METRIC_RELEASE_TO_SWIPED].record(
+                    TimeUnit.MILLISECONDS.toNanos(SystemClock.uptimeMillis() - this.mReleaseTimeMillis));
+            this.mReleaseTimeMillis = -1L;
+        }
+    }
+
+    void onReset() {
+        this.mReleaseTimeMillis = -1L;
+    }
+
+    void startFrameMonitor() {
+        if (!this.mMonitoringFrames) {
+            this.mMonitoringFrames = true;
+            this.mLastFrameTimeNanos = -1L;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    public void doFrame(long frameTimeNanos) {
+        if (!this.mMonitoringFrames) {
+            return;
+        }
+
+        if (this.mLastFrameTimeNanos >= 0L) {
+            long elapsed = frameTimeNanos - this.mLastFrameTimeNanos;
+            ++this.mAnimationFrameCount;
+            if (elapsed > this.mFrameIntervalNanos + this.mFrameIntervalNanos / 2L) {
+                this.mDroppedFrameCount += elapsed / this.mFrameIntervalNanos - 1L;
+            }
+        }
+
+        this.mLastFrameTimeNanos = frameTimeNanos;
+        if (this.mReleaseTimeMillis >= 0L || this.mSwipeStack.isStackAnimating()) {
+            Choreographer.getInstance().postFrameCallback(this);
+        } else {
+            this.mMonitoringFrames = false;
+        }
+    }
+}
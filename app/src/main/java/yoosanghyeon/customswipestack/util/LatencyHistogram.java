@@ -0,0 +1,83 @@
+package yoosanghyeon.customswipestack.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size histogram of durations with power-of-two microsecond buckets.
+ * Recording is a few arithmetic operations and never allocates.
+ */
+public class LatencyHistogram {
+    public static final int BUCKET_COUNT = 24;
+
+    private final long[] mBuckets;
+    private long mCount;
+    private long mTotalNanos;
+    private long mMaxNanos;
+
+    public LatencyHistogram() {
+        this.mBuckets = new long[BUCKET_COUNT];
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0L) {
+            return;
+        }
+
+        long micros = nanos / 1000L;
+        int bucket = Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKET_COUNT - 1);
+        ++this.mBuckets[bucket];
+        ++this.mCount;
+        this.mTotalNanos += nanos;
+        if (nanos > this.mMaxNanos) {
+            this.mMaxNanos = nanos;
+        }
+    }
+
+    public long getCount() {
+        return this.mCount;
+    }
+
+    public long getMeanNanos() {
+        return this.mCount > 0L ? this.mTotalNanos / this.mCount : 0L;
+    }
+
+    public long getMaxNanos() {
+        return this.mMaxNanos;
+    }
+
+    /**
+     * Returns the number of samples in a bucket. Bucket 0 holds durations below 1 microsecond,
+     * bucket {@code n} holds durations from {@code 2^(n-1)} up to {@code 2^n} microseconds.
+     */
+    public long getBucketCount(int bucket) {
+        return this.mBuckets[bucket];
+    }
+
+    /**
+     * Returns the upper bound in nanoseconds of the bucket holding the given percentile.
+     */
+    public long getPercentileNanos(double percentile) {
+        if (this.mCount == 0L) {
+            return 0L;
+        }
+
+        long threshold = (long) Math.ceil(this.mCount * percentile / 100.0D);
+        long seen = 0L;
+
+        for (int bucket = 0; bucket < BUCKET_COUNT; ++bucket) {
+            seen += this.mBuckets[bucket];
+            if (seen >= threshold) {
+                return Math.min((1L << bucket) * 1000L, this.mMaxNanos);
+            }
+        }
+
+        return this.mMaxNanos;
+    }
+
+    public void reset() {
+        Arrays.fill(this.mBuckets, 0L);
+        this.mCount = 0L;
+        this.mTotalNanos = 0L;
+        this.mMaxNanos = 0L;
+    }
+}
@@ -0,0 +1,85 @@
+package yoosanghyeon.customswipestack;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.*;
+
+public class DragTrackerTest {
+    private static final int MOVE_EVENTS = 1000;
+    private static final int MOVES_PER_FRAME = 4;
+    private static final int PARENT_WIDTH = 1080;
+
+    @Test
+    public void coalescesMovesUntilNextFrame() throws Exception {
+        DragTracker tracker = new DragTracker();
+        tracker.setInitialX(0.0F);
+        tracker.onDown(100.0F, 100.0F);
+
+        assertTrue(tracker.onMove(110.0F, 100.0F));
+        assertFalse(tracker.onMove(120.0F, 100.0F));
+        assertFalse(tracker.onMove(154.0F, 90.0F));
+
+        tracker.computeFrame(0.0F, 0.0F, PARENT_WIDTH);
+        assertFalse(tracker.hasPendingMove());
+        assertEquals(54.0F, tracker.getX(), 0.0F);
+        assertEquals(-10.0F, tracker.getY(), 0.0F);
+        assertEquals(54.0F / PARENT_WIDTH, tracker.getProgress(), 1e-6F);
+        assertTrue(tracker.onMove(160.0F, 90.0F));
+    }
+
+    @Test
+    public void clampsProgress() throws Exception {
+        DragTracker tracker = new DragTracker();
+        tracker.onDown(0.0F, 0.0F);
+        tracker.onMove(-5000.0F, 0.0F);
+        tracker.computeFrame(0.0F, 0.0F, PARENT_WIDTH);
+
+        assertEquals(-1.0F, tracker.getProgress(), 0.0F);
+    }
+
+    /**
+     * Covers the tracker alone; SwipeHelperBenchmark checks that the touch path
+     * around it allocates no more than the framework calls it makes.
+     */
+    @Test
+    public void trackerDoesNotAllocate() throws Exception {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        DragTracker tracker = new DragTracker();
+        simulateDrag(tracker);
+
+        long overhead = threadBean.getThreadAllocatedBytes(threadId);
+        overhead = threadBean.getThreadAllocatedBytes(threadId) - overhead;
+
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        simulateDrag(tracker);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before - overhead;
+
+        assertEquals(0L, allocated);
+    }
+
+    private static void simulateDrag(DragTracker tracker) {
+        tracker.setInitialX(0.0F);
+        tracker.onDown(100.0F, 100.0F);
+        float viewX = 0.0F;
+        float viewY = 0.0F;
+
+        for (int i = 0; i < MOVE_EVENTS; ++i) {
+            tracker.onMove(100.0F + (i % 7), 100.0F - (i % 5));
+            if (i % MOVES_PER_FRAME == MOVES_PER_FRAME - 1) {
+                tracker.computeFrame(viewX, viewY, PARENT_WIDTH);
+                viewX = tracker.getX();
+                viewY = tracker.getY();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package yoosanghyeon.customswipestack;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SeededCardTransformProviderTest {
+    private static final int MAX_ROTATION = 8;
+    private static final int POSITIONS = 1000;
+
+    @Test
+    public void samePositionGetsSameTilt() throws Exception {
+        SeededCardTransformProvider first = new SeededCardTransformProvider(42L, MAX_ROTATION);
+        SeededCardTransformProvider second = new SeededCardTransformProvider(42L, MAX_ROTATION);
+        CardTransform a = new CardTransform();
+        CardTransform b = new CardTransform();
+
+        for (int position = 0; position < POSITIONS; ++position) {
+            first.getTransform(position, a);
+            second.getTransform(position, b);
+            assertEquals(a.getRotation(), b.getRotation(), 0.0F);
+        }
+    }
+
+    @Test
+    public void tiltsStayInRangeAndVary() throws Exception {
+        SeededCardTransformProvider provider = new SeededCardTransformProvider(MAX_ROTATION);
+        CardTransform transform = new CardTransform();
+        boolean[] seen = new boolean[MAX_ROTATION];
+
+        for (int position = 0; position < POSITIONS; ++position) {
+            provider.getTransform(position, transform);
+            float rotation = transform.getRotation();
+            assertTrue(rotation >= -MAX_ROTATION / 2 && rotation < MAX_ROTATION / 2);
+            assertEquals(1.0F, transform.getScale(), 0.0F);
+            seen[(int) rotation + MAX_ROTATION / 2] = true;
+        }
+
+        for (boolean tilt : seen) {
+            assertTrue(tilt);
+        }
+    }
+
+    @Test
+    public void noRotationLeavesTransformUntouched() throws Exception {
+        CardTransform transform = new CardTransform();
+        new SeededCardTransformProvider(0).getTransform(7, transform);
+        assertEquals(0.0F, transform.getRotation(), 0.0F);
+    }
+}
@@ -0,0 +1,75 @@
+package yoosanghyeon.customswipestack;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SpringTest {
+    private static final float FRAME_SECONDS = 1.0F / 60.0F;
+
+    @Test
+    public void settlesWithinItsDuration() throws Exception {
+        float[] dampingRatios = {0.6F, 1.0F, 1.5F};
+
+        for (float dampingRatio : dampingRatios) {
+            Spring spring = new Spring(dampingRatio);
+            spring.setDuration(400);
+            float displacement = 1000.0F;
+            float velocity = 0.0F;
+
+            for (int frame = 0; frame < 24; ++frame) {
+                spring.step(displacement, velocity, FRAME_SECONDS);
+                displacement = spring.getDisplacement();
+                velocity = spring.getVelocity();
+            }
+
+            assertEquals(0.0F, displacement, 1.0F);
+        }
+    }
+
+    @Test
+    public void stepIsIndependentOfFrameLength() throws Exception {
+        Spring spring = new Spring(0.6F);
+        spring.step(300.0F, -2000.0F, 0.064F);
+        float displacement = spring.getDisplacement();
+        float velocity = spring.getVelocity();
+
+        float stepped = 300.0F;
+        float steppedVelocity = -2000.0F;
+
+        for (int frame = 0; frame < 4; ++frame) {
+            spring.step(stepped, steppedVelocity, 0.016F);
+            stepped = spring.getDisplacement();
+            steppedVelocity = spring.getVelocity();
+        }
+
+        assertEquals(displacement, stepped, 0.01F);
+        assertEquals(velocity, steppedVelocity, 0.1F);
+    }
+
+    @Test
+    public void keepsVelocityTowardsTheTarget() throws Exception {
+        Spring spring = new Spring(1.0F);
+        spring.step(0.0F, 3000.0F, FRAME_SECONDS);
+
+        assertTrue(spring.getDisplacement() > 0.0F);
+        assertTrue(spring.getVelocity() > 0.0F);
+    }
+
+    @Test
+    public void underdampedSpringOvershoots() throws Exception {
+        Spring spring = new Spring(0.6F);
+        float displacement = 100.0F;
+        float velocity = 0.0F;
+        float minimum = displacement;
+
+        for (int frame = 0; frame < 30; ++frame) {
+            spring.step(displacement, velocity, FRAME_SECONDS);
+            displacement = spring.getDisplacement();
+            velocity = spring.getVelocity();
+            minimum = Math.min(minimum, displacement);
+        }
+
+        assertTrue(minimum < 0.0F);
+    }
+}
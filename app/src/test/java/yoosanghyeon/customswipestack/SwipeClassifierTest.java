@@ -0,0 +1,70 @@
+package yoosanghyeon.customswipestack;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SwipeClassifierTest {
+    private static final int WIDTH = 600;
+    private static final int HEIGHT = 1200;
+
+    private SwipeClassifier mClassifier;
+
+    @Before
+    public void setUp() throws Exception {
+        this.mClassifier = new SwipeClassifier();
+        this.mClassifier.setFlingVelocity(1000.0F);
+        this.mClassifier.setMinFlingDistance(20.0F);
+    }
+
+    @Test
+    public void shortDragSettlesBack() throws Exception {
+        assertEquals(0, this.classify(50.0F, -50.0F, 0.0F, 0.0F, SwipeStack.SWIPE_ALL));
+    }
+
+    @Test
+    public void longDragSwipesToItsOctant() throws Exception {
+        assertEquals(SwipeStack.SWIPE_RIGHT, this.classify(200.0F, 10.0F, 0.0F, 0.0F, SwipeStack.SWIPE_ALL));
+        assertEquals(SwipeStack.SWIPE_TOP, this.classify(10.0F, -400.0F, 0.0F, 0.0F, SwipeStack.SWIPE_ALL));
+        assertEquals(SwipeStack.SWIPE_BOTTOM_LEFT, this.classify(-300.0F, 300.0F, 0.0F, 0.0F, SwipeStack.SWIPE_ALL));
+    }
+
+    @Test
+    public void disallowedDiagonalFallsBackToNearerSide() throws Exception {
+        assertEquals(SwipeStack.SWIPE_LEFT, this.classify(-300.0F, 200.0F, 0.0F, 0.0F, SwipeStack.SWIPE_STRAIGHT));
+        assertEquals(SwipeStack.SWIPE_BOTTOM, this.classify(-200.0F, 300.0F, 0.0F, 0.0F, SwipeStack.SWIPE_STRAIGHT));
+        assertEquals(0, this.classify(-300.0F, 300.0F, 0.0F, 0.0F, SwipeStack.SWIPE_RIGHT));
+    }
+
+    @Test
+    public void flingSwipesAShortDrag() throws Exception {
+        assertEquals(SwipeStack.SWIPE_TOP_RIGHT, this.classify(30.0F, -30.0F, 2000.0F, -2000.0F, SwipeStack.SWIPE_ALL));
+        assertTrue(this.mClassifier.isFling());
+    }
+
+    @Test
+    public void flingAgainstTheDragIsNotASwipe() throws Exception {
+        assertEquals(0, this.classify(30.0F, 0.0F, -400.0F, 0.0F, SwipeStack.SWIPE_ALL));
+        assertFalse(this.mClassifier.isFling());
+    }
+
+    @Test
+    public void thresholdScalesTheDecisionRegion() throws Exception {
+        this.mClassifier.setThreshold(0.5F);
+        assertEquals(0, this.classify(200.0F, 0.0F, 0.0F, 0.0F, SwipeStack.SWIPE_ALL));
+        assertEquals(SwipeStack.SWIPE_RIGHT, this.classify(310.0F, 0.0F, 0.0F, 0.0F, SwipeStack.SWIPE_ALL));
+    }
+
+    @Test
+    public void progressReachesOneAtTheDecisionRegion() throws Exception {
+        assertEquals(0.0F, this.mClassifier.getProgress(0.0F, 0.0F, WIDTH, HEIGHT), 0.001F);
+        assertEquals(0.5F, this.mClassifier.getProgress(WIDTH / 12.0F, 0.0F, WIDTH, HEIGHT), 0.001F);
+        assertEquals(1.0F, this.mClassifier.getProgress(0.0F, -HEIGHT, WIDTH, HEIGHT), 0.001F);
+        assertEquals(0.0F, this.mClassifier.getProgress(50.0F, 50.0F, 0, 0), 0.001F);
+    }
+
+    private int classify(float dragX, float dragY, float velocityX, float velocityY, int allowed) {
+        return this.mClassifier.classify(dragX, dragY, velocityX, velocityY, WIDTH, HEIGHT, allowed);
+    }
+}
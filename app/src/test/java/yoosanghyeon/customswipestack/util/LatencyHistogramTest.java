@@ -0,0 +1,41 @@
+package yoosanghyeon.customswipestack.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsByPowerOfTwoMicros() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500L);
+        histogram.record(1500L);
+        histogram.record(3000L);
+        histogram.record(-1L);
+
+        assertEquals(3L, histogram.getCount());
+        assertEquals(1L, histogram.getBucketCount(0));
+        assertEquals(1L, histogram.getBucketCount(1));
+        assertEquals(1L, histogram.getBucketCount(2));
+        assertEquals(3000L, histogram.getMaxNanos());
+        assertEquals(5000L / 3L, histogram.getMeanNanos());
+    }
+
+    @Test
+    public void reportsPercentileBucketUpperBound() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; ++i) {
+            histogram.record(4000000L);
+        }
+        histogram.record(90000000L);
+
+        assertEquals(4096000L, histogram.getPercentileNanos(50.0D));
+        assertEquals(4096000L, histogram.getPercentileNanos(99.0D));
+        assertEquals(90000000L, histogram.getPercentileNanos(100.0D));
+
+        histogram.reset();
+        assertEquals(0L, histogram.getCount());
+        assertEquals(0L, histogram.getPercentileNanos(50.0D));
+    }
+}
@@ -0,0 +1,59 @@
+package yoosanghyeon.customswipestack.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Minimal JVM benchmark loop: warms the body up, then reports the mean time and
+ * the mean number of bytes allocated on the calling thread per iteration.
+ */
+final class Benchmark {
+    private Benchmark() {
+    }
+
+    static Benchmark.Result run(String name, int warmupIterations, int iterations, Benchmark.Body body) throws Exception {
+        for (int i = 0; i < warmupIterations; ++i) {
+            body.run(i);
+        }
+
+        long startBytes = allocatedBytes();
+        long startNanos = System.nanoTime();
+
+        for (int i = 0; i < iterations; ++i) {
+            body.run(warmupIterations + i);
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocated = allocatedBytes() - startBytes;
+        return new Benchmark.Result(name, (double) elapsedNanos / iterations, allocated < 0L ? -1.0D : (double) allocated / iterations);
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+            if (threadBean.isThreadAllocatedMemorySupported()) {
+                threadBean.setThreadAllocatedMemoryEnabled(true);
+                return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+
+        return Long.MIN_VALUE;
+    }
+
+    interface Body {
+        void run(int iteration) throws Exception;
+    }
+
+    static final class Result {
+        final String mName;
+        final double mNanosPerOp;
+        final double mBytesPerOp;
+
+        Result(String name, double nanosPerOp, double bytesPerOp) {
+            this.mName = name;
+            this.mNanosPerOp = nanosPerOp;
+            this.mBytesPerOp = bytesPerOp;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package yoosanghyeon.customswipestack.benchmark;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import yoosanghyeon.customswipestack.SwipeStackAdapter;
+
+/**
+ * Adapter with a configurable number of view types, each a small nested card layout.
+ */
+class BenchmarkAdapter extends SwipeStackAdapter {
+    private final int mCount;
+    private final int mViewTypeCount;
+
+    BenchmarkAdapter(int count, int viewTypeCount) {
+        this.mCount = count;
+        this.mViewTypeCount = viewTypeCount;
+    }
+
+    public int getCount() {
+        return this.mCount;
+    }
+
+    public Object getItem(int position) {
+        return "Card " + position;
+    }
+
+    public long getItemId(int position) {
+        return (long) position;
+    }
+
+    public int getItemViewType(int position) {
+        return position % this.mViewTypeCount;
+    }
+
+    public int getViewTypeCount() {
+        return this.mViewTypeCount;
+    }
+
+    public View getView(int position, View convertView, ViewGroup parent) {
+        TextView title;
+        if (convertView == null) {
+            FrameLayout card = new FrameLayout(parent.getContext());
+            card.setLayoutParams(new ViewGroup.LayoutParams(-1, -1));
+            LinearLayout content = new LinearLayout(parent.getContext());
+            content.setOrientation(LinearLayout.VERTICAL);
+            card.addView(content);
+
+            for (int i = 0; i <= this.getItemViewType(position); ++i) {
+                content.addView(new TextView(parent.getContext()));
+            }
+
+            title = new TextView(parent.getContext());
+            content.addView(title);
+            card.setTag(title);
+            convertView = card;
+        } else {
+            title = (TextView) convertView.getTag();
+        }
+
+        title.setText((String) this.getItem(position));
+        return convertView;
+    }
+}
@@ -0,0 +1,124 @@
+package yoosanghyeon.customswipestack.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes the results of one benchmark class to {@code build/benchmark-results/<suite>.json}
+ * and compares them with the same file of an earlier build.
+ * <p>
+ * Pass {@code -PbenchmarkBaseline=<dir>} to compare against a saved results directory,
+ * and {@code -PbenchmarkTolerance=0.2} to fail when a benchmark got more than 20% slower.
+ */
+final class BenchmarkReport {
+    private static final Pattern ENTRY = Pattern.compile(
+            "\"name\": \"([^\"]+)\", \"nanosPerOp\": ([0-9.Ee+-]+), \"bytesPerOp\": ([0-9.Ee+-]+)");
+
+    private final String mSuite;
+    private final List<Benchmark.Result> mResults;
+
+    BenchmarkReport(String suite) {
+        this.mSuite = suite;
+        this.mResults = new ArrayList<>();
+    }
+
+    void add(Benchmark.Result result) {
+        this.mResults.add(result);
+        System.out.println(String.format(Locale.US, "%s.%s: %.1f ns/op, %.1f B/op",
+                this.mSuite, result.mName, result.mNanosPerOp, result.mBytesPerOp));
+    }
+
+    void finish() throws IOException {
+        File outputDir = new File(System.getProperty("benchmark.outputDir", "build/benchmark-results"));
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Can't create " + outputDir);
+        }
+
+        this.write(new File(outputDir, this.mSuite + ".json"));
+
+        String baselineDir = System.getProperty("benchmark.baseline");
+        if (baselineDir != null) {
+            this.compare(new File(baselineDir, this.mSuite + ".json"));
+        }
+    }
+
+    private void write(File file) throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+
+        try {
+            writer.write("[\n");
+            for (int i = 0; i < this.mResults.size(); ++i) {
+                Benchmark.Result result = this.mResults.get(i);
+                writer.write(String.format(Locale.US,
+                        "  {\"name\": \"%s\", \"nanosPerOp\": %.1f, \"bytesPerOp\": %.1f}%s\n",
+                        result.mName, result.mNanosPerOp, result.mBytesPerOp,
+                        i < this.mResults.size() - 1 ? "," : ""));
+            }
+            writer.write("]\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void compare(File baselineFile) throws IOException {
+        if (!baselineFile.isFile()) {
+            System.out.println("No baseline for " + this.mSuite + " at " + baselineFile);
+            return;
+        }
+
+        Map<String, Double> baseline = read(baselineFile);
+        String toleranceProperty = System.getProperty("benchmark.tolerance");
+        double tolerance = toleranceProperty != null ? Double.parseDouble(toleranceProperty) : -1.0D;
+        StringBuilder regressions = new StringBuilder();
+
+        for (Benchmark.Result result : this.mResults) {
+            Double previous = baseline.get(result.mName);
+            if (previous == null || previous.doubleValue() <= 0.0D) {
+                continue;
+            }
+
+            double change = result.mNanosPerOp / previous.doubleValue() - 1.0D;
+            System.out.println(String.format(Locale.US, "%s.%s: %+.1f%% vs baseline", this.mSuite, result.mName, change * 100.0D));
+            if (tolerance >= 0.0D && change > tolerance) {
+                regressions.append(String.format(Locale.US, "\n  %s: %.1f -> %.1f ns/op",
+                        result.mName, previous.doubleValue(), result.mNanosPerOp));
+            }
+        }
+
+        if (regressions.length() > 0) {
+            throw new AssertionError(this.mSuite + " regressed beyond tolerance:" + regressions);
+        }
+    }
+
+    private static Map<String, Double> read(File file) throws IOException {
+        Map<String, Double> results = new HashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = ENTRY.matcher(line);
+                if (matcher.find()) {
+                    results.put(matcher.group(1), Double.valueOf(matcher.group(2)));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return results;
+    }
+}
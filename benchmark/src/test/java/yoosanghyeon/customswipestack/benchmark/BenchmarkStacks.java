@@ -0,0 +1,34 @@
+package yoosanghyeon.customswipestack.benchmark;
+
+import android.util.AttributeSet;
+import android.view.View;
+
+import org.robolectric.Robolectric;
+import org.robolectric.RuntimeEnvironment;
+
+import yoosanghyeon.customswipestack.R;
+import yoosanghyeon.customswipestack.SwipeStack;
+
+final class BenchmarkStacks {
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 1920;
+
+    private BenchmarkStacks() {
+    }
+
+    static SwipeStack create(int stackSize, int viewTypeCount, int itemCount) {
+        AttributeSet attrs = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.stack_size, String.valueOf(stackSize))
+                .build();
+        SwipeStack swipeStack = new SwipeStack(RuntimeEnvironment.application, attrs);
+        swipeStack.setAdapter(new BenchmarkAdapter(itemCount, viewTypeCount));
+        layout(swipeStack);
+        return swipeStack;
+    }
+
+    static void layout(SwipeStack swipeStack) {
+        swipeStack.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        swipeStack.layout(0, 0, WIDTH, HEIGHT);
+    }
+}
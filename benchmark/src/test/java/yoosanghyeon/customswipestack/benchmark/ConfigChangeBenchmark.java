@@ -0,0 +1,77 @@
+package yoosanghyeon.customswipestack.benchmark;
+
+import android.os.Parcelable;
+import android.util.AttributeSet;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import yoosanghyeon.customswipestack.R;
+import yoosanghyeon.customswipestack.SwipeStack;
+
+/**
+ * Time from a saved state to a laid out stack, for a recreated stack and for one
+ * that survived the configuration change.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ConfigChangeBenchmark {
+    private static final int[] STACK_SIZES = {3, 5, 10};
+    private static final int ITEM_COUNT = 100;
+    private static final int SWIPED_COUNT = 10;
+    private static final int WARMUP_ITERATIONS = 100;
+    private static final int ITERATIONS = 500;
+
+    private static final BenchmarkReport sReport = new BenchmarkReport("ConfigChangeBenchmark");
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        sReport.finish();
+    }
+
+    @Test
+    public void restoreRecreatedStack() throws Exception {
+        for (final int stackSize : STACK_SIZES) {
+            final Parcelable state = savedState(stackSize);
+            final AttributeSet attrs = Robolectric.buildAttributeSet()
+                    .addAttribute(R.attr.stack_size, String.valueOf(stackSize))
+                    .build();
+            sReport.add(Benchmark.run("restoreRecreated_stack" + stackSize, WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Body() {
+                public void run(int iteration) {
+                    SwipeStack swipeStack = new SwipeStack(RuntimeEnvironment.application, attrs);
+                    swipeStack.setAdapter(new BenchmarkAdapter(ITEM_COUNT, 1));
+                    swipeStack.onRestoreInstanceState(state);
+                    BenchmarkStacks.layout(swipeStack);
+                }
+            }));
+        }
+    }
+
+    @Test
+    public void restoreRetainedStack() throws Exception {
+        for (int stackSize : STACK_SIZES) {
+            final SwipeStack swipeStack = BenchmarkStacks.create(stackSize, 1, ITEM_COUNT);
+            swipeStack.swipeTopViews(SWIPED_COUNT, SwipeStack.SWIPE_LEFT);
+            BenchmarkStacks.layout(swipeStack);
+            final Parcelable state = swipeStack.onSaveInstanceState();
+            sReport.add(Benchmark.run("restoreRetained_stack" + stackSize, WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Body() {
+                public void run(int iteration) {
+                    swipeStack.onRestoreInstanceState(state);
+                    BenchmarkStacks.layout(swipeStack);
+                }
+            }));
+        }
+    }
+
+    private static Parcelable savedState(int stackSize) {
+        SwipeStack swipeStack = BenchmarkStacks.create(stackSize, 1, ITEM_COUNT);
+        swipeStack.swipeTopViews(SWIPED_COUNT, SwipeStack.SWIPE_LEFT);
+        BenchmarkStacks.layout(swipeStack);
+        return swipeStack.onSaveInstanceState();
+    }
+}
@@ -0,0 +1,135 @@
+package yoosanghyeon.customswipestack.benchmark;
+
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import yoosanghyeon.customswipestack.SwipeStack;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SwipeHelperBenchmark {
+    private static final int WARMUP_ITERATIONS = 2000;
+    private static final int ITERATIONS = 10000;
+    private static final int MOVES_PER_FRAME = 4;
+    private static final int MOVE_EVENTS = 64;
+    /**
+     * Slack for the sampling of the allocation counter, far below one object per event.
+     */
+    private static final double ALLOCATION_TOLERANCE_BYTES = 1.0D;
+
+    private static final BenchmarkReport sReport = new BenchmarkReport("SwipeHelperBenchmark");
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        sReport.finish();
+    }
+
+    @Test
+    public void moveEvent() throws Exception {
+        SwipeStack swipeStack = BenchmarkStacks.create(SwipeStack.DEFAULT_STACK_SIZE, 1, SwipeStack.DEFAULT_STACK_SIZE);
+        final View topView = swipeStack.getTopView();
+        final MotionEvent[] moves = obtainMoves();
+        MotionEvent down = MotionEvent.obtain(0L, 0L, MotionEvent.ACTION_DOWN, 500.0F, 800.0F, 0);
+        // Move past the touch slop first so the benchmark measures dragging.
+        MotionEvent startDrag = MotionEvent.obtain(0L, 0L, MotionEvent.ACTION_MOVE, 560.0F, 800.0F, 0);
+        topView.dispatchTouchEvent(down);
+        topView.dispatchTouchEvent(startDrag);
+        down.recycle();
+        startDrag.recycle();
+
+        Benchmark.Result moveEvent = Benchmark.run("moveEvent", WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Body() {
+            public void run(int iteration) {
+                topView.dispatchTouchEvent(moves[iteration % MOVE_EVENTS]);
+            }
+        });
+        sReport.add(moveEvent);
+        sReport.add(Benchmark.run("moveEventWithFrame", WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Body() {
+            public void run(int iteration) {
+                topView.dispatchTouchEvent(moves[iteration % MOVE_EVENTS]);
+                if (iteration % MOVES_PER_FRAME == MOVES_PER_FRAME - 1) {
+                    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+                }
+            }
+        }));
+
+        for (MotionEvent move : moves) {
+            move.recycle();
+        }
+    }
+
+    /**
+     * The Robolectric shadows allocate on their own, so a move event can't be measured
+     * at 0 B/op here. Instead a plain view makes the same framework calls per event as
+     * SwipeHelper does, and SwipeHelper must not allocate more than that.
+     */
+    @Test
+    public void moveEventAllocatesNoMoreThanFramework() throws Exception {
+        SwipeStack swipeStack = BenchmarkStacks.create(SwipeStack.DEFAULT_STACK_SIZE, 1, SwipeStack.DEFAULT_STACK_SIZE);
+        final View topView = swipeStack.getTopView();
+        final View plainView = new View(RuntimeEnvironment.application);
+        final VelocityTracker velocityTracker = VelocityTracker.obtain();
+        plainView.setOnTouchListener(new View.OnTouchListener() {
+            public boolean onTouch(View v, MotionEvent event) {
+                int pointerIndex = event.findPointerIndex(0);
+                float offsetX = v.getX();
+                float offsetY = v.getY();
+                event.offsetLocation(offsetX, offsetY);
+                velocityTracker.addMovement(event);
+                event.offsetLocation(-offsetX, -offsetY);
+                event.getX(pointerIndex);
+                event.getY(pointerIndex);
+                return true;
+            }
+        });
+        final MotionEvent[] moves = obtainMoves();
+        MotionEvent down = MotionEvent.obtain(0L, 0L, MotionEvent.ACTION_DOWN, 500.0F, 800.0F, 0);
+        MotionEvent startDrag = MotionEvent.obtain(0L, 0L, MotionEvent.ACTION_MOVE, 560.0F, 800.0F, 0);
+        topView.dispatchTouchEvent(down);
+        topView.dispatchTouchEvent(startDrag);
+        down.recycle();
+        startDrag.recycle();
+
+        Benchmark.Result swipeHelper = Benchmark.run("moveEventSwipeHelper", WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Body() {
+            public void run(int iteration) {
+                topView.dispatchTouchEvent(moves[iteration % MOVE_EVENTS]);
+            }
+        });
+        Benchmark.Result framework = Benchmark.run("moveEventFramework", WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Body() {
+            public void run(int iteration) {
+                plainView.dispatchTouchEvent(moves[iteration % MOVE_EVENTS]);
+            }
+        });
+
+        for (MotionEvent move : moves) {
+            move.recycle();
+        }
+
+        velocityTracker.recycle();
+        Assume.assumeTrue(swipeHelper.mBytesPerOp >= 0.0D && framework.mBytesPerOp >= 0.0D);
+        assertTrue(swipeHelper.mBytesPerOp + " B/op, framework alone " + framework.mBytesPerOp + " B/op",
+                swipeHelper.mBytesPerOp <= framework.mBytesPerOp + ALLOCATION_TOLERANCE_BYTES);
+    }
+
+    private static MotionEvent[] obtainMoves() {
+        MotionEvent[] moves = new MotionEvent[MOVE_EVENTS];
+
+        for (int i = 0; i < MOVE_EVENTS; ++i) {
+            float offset = (float) (i % 8 - 4);
+            moves[i] = MotionEvent.obtain(0L, (long) i, MotionEvent.ACTION_MOVE, 500.0F + offset, 800.0F - offset, 0);
+        }
+
+        return moves;
+    }
+}
@@ -0,0 +1,94 @@
+package yoosanghyeon.customswipestack.benchmark;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import yoosanghyeon.customswipestack.PrefetchScheduler;
+import yoosanghyeon.customswipestack.RecycledViewPool;
+import yoosanghyeon.customswipestack.SwipeStack;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SwipeStackBenchmark {
+    private static final int[] STACK_SIZES = {3, 5, 10};
+    private static final int[] VIEW_TYPE_COUNTS = {1, 3};
+    private static final int SHARED_STACK_COUNT = 3;
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int ITERATIONS = 1000;
+
+    private static final BenchmarkReport sReport = new BenchmarkReport("SwipeStackBenchmark");
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        sReport.finish();
+    }
+
+    @Test
+    public void layoutPass() throws Exception {
+        for (int stackSize : STACK_SIZES) {
+            final SwipeStack swipeStack = BenchmarkStacks.create(stackSize, 1, stackSize);
+            sReport.add(Benchmark.run("layoutPass_stack" + stackSize, WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Body() {
+                public void run(int iteration) {
+                    swipeStack.requestLayout();
+                    BenchmarkStacks.layout(swipeStack);
+                }
+            }));
+        }
+    }
+
+    @Test
+    public void rebindTopCard() throws Exception {
+        for (int stackSize : STACK_SIZES) {
+            final SwipeStack swipeStack = BenchmarkStacks.create(stackSize, 1, stackSize);
+            final BenchmarkAdapter adapter = (BenchmarkAdapter) swipeStack.getAdapter();
+            sReport.add(Benchmark.run("rebindTopCard_stack" + stackSize, WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Body() {
+                public void run(int iteration) {
+                    adapter.notifyItemChanged(swipeStack.getCurrentPosition());
+                    BenchmarkStacks.layout(swipeStack);
+                }
+            }));
+        }
+    }
+
+    @Test
+    public void swipeAndAddNextView() throws Exception {
+        for (int stackSize : STACK_SIZES) {
+            for (int viewTypeCount : VIEW_TYPE_COUNTS) {
+                final SwipeStack swipeStack = BenchmarkStacks.create(stackSize, viewTypeCount,
+                        WARMUP_ITERATIONS + ITERATIONS + stackSize);
+                sReport.add(Benchmark.run("swipe_stack" + stackSize + "_types" + viewTypeCount,
+                        WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Body() {
+                            public void run(int iteration) {
+                                swipeStack.onViewSwipedToLeft();
+                                BenchmarkStacks.layout(swipeStack);
+                            }
+                        }));
+            }
+        }
+    }
+
+    @Test
+    public void swipeWithSharedPool() throws Exception {
+        RecycledViewPool pool = new RecycledViewPool();
+        PrefetchScheduler scheduler = new PrefetchScheduler();
+        final SwipeStack[] swipeStacks = new SwipeStack[SHARED_STACK_COUNT];
+
+        for (int i = 0; i < SHARED_STACK_COUNT; ++i) {
+            swipeStacks[i] = BenchmarkStacks.create(SwipeStack.DEFAULT_STACK_SIZE, 1,
+                    WARMUP_ITERATIONS + ITERATIONS + SwipeStack.DEFAULT_STACK_SIZE);
+            swipeStacks[i].setRecycledViewPool(pool);
+            swipeStacks[i].setPrefetchScheduler(scheduler);
+        }
+
+        sReport.add(Benchmark.run("swipe_shared_stacks" + SHARED_STACK_COUNT, WARMUP_ITERATIONS, ITERATIONS, new Benchmark.Body() {
+            public void run(int iteration) {
+                SwipeStack swipeStack = swipeStacks[iteration % SHARED_STACK_COUNT];
+                swipeStack.onViewSwipedToLeft();
+                BenchmarkStacks.layout(swipeStack);
+            }
+        }));
+    }
+}